@@ -0,0 +1,53 @@
+package com.prasad.moneymanager.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+
+//Stand-ins for the Spring beans around the code under test; benchmarks run without an application context
+public final class Fakes {
+
+    private Fakes() {
+    }
+
+    //a repository whose only working method is the given one; anything else throws
+    public static <T> T repository(Class<T> type, String method, Function<Object[], Object> answer) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (self, invoked, args) -> {
+            if (invoked.getName().equals(method)) {
+                return answer.apply(args);
+            }
+            if (invoked.getDeclaringClass() == Object.class) {
+                return switch (invoked.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> type.getSimpleName() + " fake";
+                };
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + invoked.getName());
+        });
+        return type.cast(proxy);
+    }
+
+    //a bean built through its (Lombok) constructor with every dependency null, for methods that don't use them
+    public static <T> T withNullDependencies(Class<T> type) {
+        Constructor<?> constructor = type.getDeclaredConstructors()[0];
+        Object[] args = new Object[constructor.getParameterCount()];
+        try {
+            constructor.setAccessible(true);
+            return type.cast(constructor.newInstance(args));
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create " + type.getSimpleName(), e);
+        }
+    }
+
+    public static void setField(Object target, String name, Object value) {
+        try {
+            var field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Could not set " + name, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.prasad.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.prasad.moneymanager.benchmark.Fakes;
+import com.prasad.moneymanager.dto.DailyExpenseRow;
+
+//The HTML table of one profile's daily expense summary email
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DailySummaryHtmlBenchmark {
+
+    @Param({"5", "50"})
+    private int expenses;
+
+    private NotificationService notificationService;
+    private List<DailyExpenseRow> todaysExpenses;
+
+    @Setup
+    public void setup() {
+        notificationService = Fakes.withNullDependencies(NotificationService.class);
+        todaysExpenses = new ArrayList<>(expenses);
+        for (int i = 0; i < expenses; i++) {
+            todaysExpenses.add(new DailyExpenseRow(1L, (long) i, "bench@example.com", "Bench User", "Expense " + i,
+                new BigDecimal("149.99"), i % 3 == 0 ? null : "Category " + (i % 5)));
+        }
+    }
+
+    @Benchmark
+    public String buildExpenseSummaryHtml() {
+        return notificationService.buildExpenseSummaryHtml(todaysExpenses);
+    }
+}
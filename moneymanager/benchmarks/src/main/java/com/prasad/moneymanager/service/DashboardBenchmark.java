@@ -0,0 +1,75 @@
+package com.prasad.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.prasad.moneymanager.benchmark.Fakes;
+import com.prasad.moneymanager.dto.DashboardDTO;
+import com.prasad.moneymanager.dto.DashboardSnapshotRow;
+import com.prasad.moneymanager.repository.ProfileBalanceRepository;
+import com.prasad.moneymanager.security.AuthenticatedProfile;
+
+//DashboardService.getDashboardData without the database: the snapshot query is answered with the
+//rows it returns for a profile with 5 incomes and 5 expenses, so what is measured is the merge into the DTO
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DashboardBenchmark {
+
+    private DashboardService dashboardService;
+
+    private record SnapshotRow(BigDecimal getTotalIncome, BigDecimal getTotalExpense, String getType, Long getId,
+            String getName, String getIcon, BigDecimal getAmount, LocalDate getDate, LocalDateTime getCreatedAt,
+            LocalDateTime getUpdatedAt, Long getCategoryId, String getCategoryName) implements DashboardSnapshotRow {
+    }
+
+    @Setup
+    public void setup() {
+        BigDecimal income = new BigDecimal("85000.00");
+        BigDecimal expense = new BigDecimal("41250.75");
+        LocalDateTime now = LocalDateTime.now();
+        List<DashboardSnapshotRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String type = i % 2 == 0 ? "income" : "expense";
+            rows.add(new SnapshotRow(income, expense, type, (long) i, type + " " + i, "icon",
+                new BigDecimal("250.00"), LocalDate.now().minusDays(i), now, now, (long) (i % 4), "Category " + (i % 4)));
+        }
+        ProfileBalanceRepository balanceRepository = Fakes.repository(ProfileBalanceRepository.class, "findDashboardSnapshot", args -> rows);
+        dashboardService = new DashboardService(Fakes.withNullDependencies(ProfileService.class), null, balanceRepository);
+
+        //runs on the benchmark thread, which is where getCurrentProfileId reads it
+        AuthenticatedProfile principal = new AuthenticatedProfile(1L, "bench@example.com", true, 0);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public DashboardDTO getDashboardData() {
+        return dashboardService.getDashboardData();
+    }
+}
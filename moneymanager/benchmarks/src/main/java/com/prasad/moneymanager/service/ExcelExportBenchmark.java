@@ -0,0 +1,70 @@
+package com.prasad.moneymanager.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prasad.moneymanager.benchmark.Fakes;
+import com.prasad.moneymanager.dto.TransactionExportRow;
+import com.prasad.moneymanager.repository.ExpenseRepository;
+
+//The expense Excel export (SXSSF workbook written to a discarding stream) for 1k and 100k rows
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExcelExportBenchmark {
+
+    private static final Comparator<TransactionExportRow> EXPORT_ORDER =
+        Comparator.comparing(TransactionExportRow::getDate).thenComparing(TransactionExportRow::getId);
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ExportService exportService;
+
+    @Setup
+    public void setup() {
+        List<TransactionExportRow> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(new TransactionExportRow((long) i, "Expense " + i, new BigDecimal("99.90").add(BigDecimal.valueOf(i % 500)),
+                LocalDate.of(2024, 1, 1).plusDays(i % 365), "Category " + (i % 12)));
+        }
+        //in (date, id) order, served one keyset chunk per call like the real query
+        data.sort(EXPORT_ORDER);
+        ExpenseRepository expenseRepository = Fakes.repository(ExpenseRepository.class, "findExportRows", args -> {
+            TransactionExportRow after = new TransactionExportRow((Long) args[2], null, null, (LocalDate) args[1], null);
+            int from = Collections.binarySearch(data, after, EXPORT_ORDER);
+            from = from >= 0 ? from + 1 : -from - 1;
+            return data.subList(from, Math.min(from + ((Limit) args[4]).max(), data.size()));
+        });
+        exportService = new ExportService(null, expenseRepository, new ObjectMapper());
+    }
+
+    @Benchmark
+    public void writeExcel() throws IOException {
+        exportService.writeExcel("expense", 1L, OutputStream.nullOutputStream());
+    }
+}
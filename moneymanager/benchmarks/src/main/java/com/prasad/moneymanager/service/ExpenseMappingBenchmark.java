@@ -0,0 +1,60 @@
+package com.prasad.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.prasad.moneymanager.benchmark.Fakes;
+import com.prasad.moneymanager.dto.ExpenseDTO;
+import com.prasad.moneymanager.dto.TransactionRow;
+
+//ExpenseService.toDto over one list response worth of projected rows
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpenseMappingBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private ExpenseService expenseService;
+    private List<TransactionRow> page;
+
+    @Setup
+    public void setup() {
+        expenseService = Fakes.withNullDependencies(ExpenseService.class);
+        LocalDateTime now = LocalDateTime.now();
+        page = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            page.add(new TransactionRow((long) i, "Expense " + i, "icon", new BigDecimal("12.50").add(BigDecimal.valueOf(i)),
+                LocalDate.now().minusDays(i % 30), (long) (i % 8), "Category " + (i % 8), now, now));
+        }
+    }
+
+    @Benchmark
+    public List<ExpenseDTO> toDto() {
+        List<ExpenseDTO> dtos = new ArrayList<>(page.size());
+        for (TransactionRow row : page) {
+            dtos.add(expenseService.toDto(row));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,111 @@
+package com.prasad.moneymanager.util;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.prasad.moneymanager.benchmark.Fakes;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.security.AuthenticatedProfile;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+//What JwtRequestFilter pays per request. baselineFilterPath is the JWT work of the filter before the key
+//and parser were built once: extractEmail, then validateToken (extractEmail again and isTokenExpired), each
+//decoding the key and building a parser. extractProfile is the current path, with the verified-token cache
+//on (hit after the first call) and off (cacheSize 0: digest, signature check and claim parsing every time);
+//parseAndValidate is a bare parse with the shared parser
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    //any 256-bit HMAC key works; this one is only used here
+    private static final String SECRET_KEY = "YmVuY2htYXJrLW9ubHktc2VjcmV0LWtleS1mb3ItaG1hYy1zaGEyNTYhIQ==";
+
+    @State(Scope.Thread)
+    public static class Current {
+
+        @Param({"0", "10000"})
+        private int cacheSize;
+
+        private JwtUtil jwtUtil;
+        private String token;
+
+        @Setup
+        public void setup() {
+            jwtUtil = jwtUtil(cacheSize);
+            token = token(jwtUtil);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Baseline {
+
+        private String token;
+
+        @Setup
+        public void setup() {
+            token = token(jwtUtil(0));
+        }
+    }
+
+    @Benchmark
+    public AuthenticatedProfile extractProfile(Current state) {
+        return state.jwtUtil.extractProfile(state.token);
+    }
+
+    @Benchmark
+    public String parseAndValidate(Current state) {
+        return state.jwtUtil.extractEmail(state.token);
+    }
+
+    @Benchmark
+    public boolean baselineFilterPath(Baseline state) {
+        String email = baselineClaims(state.token).getSubject();
+        return email.equals(baselineClaims(state.token).getSubject())
+            && !baselineClaims(state.token).getExpiration().before(new Date());
+    }
+
+    //the old extractAllClaims: key decoded and parser built on every call
+    private static Claims baselineClaims(String token) {
+        return Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+
+    private static JwtUtil jwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        Fakes.setField(jwtUtil, "SECRET_KEY", SECRET_KEY);
+        Fakes.setField(jwtUtil, "verifiedCacheSize", cacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static String token(JwtUtil jwtUtil) {
+        return jwtUtil.generateToken(ProfileEntity.builder()
+            .id(42L)
+            .email("bench@example.com")
+            .isActive(true)
+            .tokenVersion(0)
+            .build());
+    }
+}
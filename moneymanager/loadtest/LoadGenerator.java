@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Fixed-concurrency HTTP load generator for the Money Manager API. Start the server with the loadtest
+//profile (mvn -Ploadtest spring-boot:run -Dspring-boot.run.profiles=loadtest), which seeds users
+//loadtest-1@example.com .. loadtest-N@example.com, then run this file directly with the JDK:
+//
+//  java loadtest/LoadGenerator.java [--base-url http://localhost:8080/api/v1.0] [--profiles 50]
+//      [--password password] [--concurrency 32] [--warmup-seconds 10] [--duration-seconds 60]
+//      [--mix dashboard=40,filter=25,incomes=10,expenses=10,excel=5] [--timeout-seconds 30]
+//      [--out loadtest-report.txt]
+//
+//Each worker logs nothing and keeps its own latencies; the report has, per endpoint, the requests completing
+//in the measured window (after warm-up), their throughput and error rate, the errors split into 5xx responses,
+//timeouts (no response within --timeout-seconds) and others (4xx, connection failures), p50/p90/p95/p99/max
+//latency over all of them, and how many requests sent in the window were still running when it closed.
+//Compare runs on ok/s and err%: a server that fails fast can post a high req/s.
+public class LoadGenerator {
+
+    enum Endpoint { DASHBOARD, FILTER, INCOMES, EXPENSES, EXCEL }
+
+    enum Outcome { OK, SERVER_ERROR, TIMEOUT, OTHER_ERROR }
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] KEYWORDS = {"", "", "coffee", "rent", "bill", "paycheck", "super"};
+    private static final String[] SORT_FIELDS = {"date", "amount", "name"};
+
+    private final Map<String, String> options;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Endpoint[] schedule;
+    private final Duration timeout;
+
+    LoadGenerator(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080/api/v1.0");
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.schedule = schedule(option("mix", "dashboard=40,filter=25,incomes=10,expenses=10,excel=5"));
+        this.timeout = Duration.ofSeconds(Long.parseLong(option("timeout-seconds", "30")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--help")) {
+                System.out.println("Options: --base-url --profiles --password --concurrency --warmup-seconds"
+                    + " --duration-seconds --mix dashboard=40,filter=25,incomes=10,expenses=10,excel=5 --timeout-seconds --out");
+                return;
+            }
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws Exception {
+        int profiles = Integer.parseInt(option("profiles", "50"));
+        int concurrency = Integer.parseInt(option("concurrency", "32"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup-seconds", "10")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration-seconds", "60")));
+        Path out = Path.of(option("out", "loadtest-report.txt"));
+
+        List<String> tokens = login(profiles, option("password", "password"));
+        System.out.printf("Logged in %d profiles; %d workers, %ds warm-up, %ds measured%n", tokens.size(), concurrency,
+            TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        long measureFrom = System.nanoTime() + warmupNanos;
+        long measureUntil = measureFrom + durationNanos;
+        List<Recorder> recorders = new ArrayList<>();
+        //one virtual thread per simulated client, so thousands of connections cost the generator little
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < concurrency; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            workers.submit(() -> work(tokens, recorder, measureFrom, measureUntil));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(durationNanos + warmupNanos + timeout.toNanos() + TimeUnit.MINUTES.toNanos(1),
+                TimeUnit.NANOSECONDS)) {
+            workers.shutdownNow();
+        }
+
+        String report = report(recorders, profiles, concurrency, warmupNanos, durationNanos);
+        Files.writeString(out, report, StandardCharsets.UTF_8);
+        System.out.print(report);
+        System.out.println("Report written to " + out.toAbsolutePath());
+    }
+
+    //tokens through /login; retries while the server is still starting or seeding
+    private List<String> login(int profiles, String password) throws InterruptedException {
+        List<String> tokens = new ArrayList<>(profiles);
+        long giveUpAt = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        for (int i = 1; i <= profiles; i++) {
+            String body = "{\"email\":\"loadtest-" + i + "@example.com\",\"password\":\"" + password + "\"}";
+            while (true) {
+                try {
+                    HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                    Matcher matcher = TOKEN.matcher(response.body());
+                    if (response.statusCode() == 200 && matcher.find()) {
+                        tokens.add(matcher.group(1));
+                        break;
+                    }
+                } catch (IOException e) {
+                    //server not up yet
+                }
+                if (System.nanoTime() > giveUpAt) {
+                    throw new IllegalStateException("Could not log in loadtest-" + i + "@example.com; is the server"
+                        + " running with the loadtest profile and at least " + profiles + " seeded profiles?");
+                }
+                Thread.sleep(1000);
+            }
+        }
+        return tokens;
+    }
+
+    private void work(List<String> tokens, Recorder recorder, long measureFrom, long measureUntil) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < measureUntil) {
+            Endpoint endpoint = schedule[random.nextInt(schedule.length)];
+            HttpRequest request = request(endpoint, tokens.get(random.nextInt(tokens.size())), random);
+            long start = System.nanoTime();
+            Outcome outcome;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                outcome = switch (response.statusCode() / 100) {
+                    case 2 -> Outcome.OK;
+                    case 5 -> Outcome.SERVER_ERROR;
+                    default -> Outcome.OTHER_ERROR;
+                };
+            } catch (HttpTimeoutException e) {
+                outcome = Outcome.TIMEOUT;
+            } catch (IOException e) {
+                outcome = Outcome.OTHER_ERROR;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long end = System.nanoTime();
+            //counted by completion time, so requests queued behind a saturated server still show up
+            if (end >= measureFrom && end <= measureUntil) {
+                recorder.record(endpoint, end - start, outcome);
+            } else if (end > measureUntil && start <= measureUntil) {
+                recorder.late.merge(endpoint, 1L, Long::sum);
+            }
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint, String token, ThreadLocalRandom random) {
+        String type = random.nextBoolean() ? "income" : "expense";
+        HttpRequest.Builder builder = switch (endpoint) {
+            case DASHBOARD -> HttpRequest.newBuilder(URI.create(baseUrl + "/dashboard")).GET();
+            case INCOMES -> HttpRequest.newBuilder(URI.create(baseUrl + "/incomes")).GET();
+            case EXPENSES -> HttpRequest.newBuilder(URI.create(baseUrl + "/expenses")).GET();
+            case EXCEL -> HttpRequest.newBuilder(URI.create(baseUrl + "/excel/download/" + type + "?format=xlsx")).GET();
+            case FILTER -> HttpRequest.newBuilder(URI.create(baseUrl + "/filter"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"" + type + "\",\"keyword\":\""
+                    + KEYWORDS[random.nextInt(KEYWORDS.length)] + "\",\"sortField\":\""
+                    + SORT_FIELDS[random.nextInt(SORT_FIELDS.length)] + "\",\"sortOrder\":\""
+                    + (random.nextBoolean() ? "asc" : "desc") + "\",\"pageSize\":100}"));
+        };
+        return builder.header("Authorization", "Bearer " + token)
+            .timeout(timeout)
+            .build();
+    }
+
+    private String report(List<Recorder> recorders, int profiles, int concurrency, long warmupNanos, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append("# Money Manager load test ").append(Instant.now()).append('\n');
+        report.append(String.format(Locale.ROOT,
+            "# base-url=%s profiles=%d concurrency=%d warmup=%ds duration=%ds timeout=%ds mix=%s%n",
+            baseUrl, profiles, concurrency, TimeUnit.NANOSECONDS.toSeconds(warmupNanos),
+            TimeUnit.NANOSECONDS.toSeconds(durationNanos), timeout.toSeconds(),
+            option("mix", "dashboard=40,filter=25,incomes=10,expenses=10,excel=5")));
+        report.append(String.format(Locale.ROOT, "%-10s %9s %8s %8s %6s %6s %7s %6s %6s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "req/s", "ok/s", "err%", "5xx", "timeout", "other", "late",
+            "p50_ms", "p90_ms", "p95_ms", "p99_ms", "max_ms"));
+
+        long[] all = new long[0];
+        long[] allOutcomes = new long[Outcome.values().length];
+        long allLate = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            long[] latencies = recorders.stream()
+                .map(recorder -> recorder.latencies(endpoint))
+                .reduce(new long[0], LoadGenerator::concat);
+            long[] outcomes = new long[Outcome.values().length];
+            for (Recorder recorder : recorders) {
+                recorder.outcomes(endpoint).forEach((outcome, count) -> outcomes[outcome.ordinal()] += count);
+            }
+            long late = recorders.stream().mapToLong(recorder -> recorder.late.getOrDefault(endpoint, 0L)).sum();
+            if (latencies.length == 0 && late == 0) {
+                continue;
+            }
+            report.append(line(endpoint.name().toLowerCase(Locale.ROOT), latencies, outcomes, late, seconds));
+            all = concat(all, latencies);
+            for (int i = 0; i < outcomes.length; i++) {
+                allOutcomes[i] += outcomes[i];
+            }
+            allLate += late;
+        }
+        if (all.length > 0 || allLate > 0) {
+            report.append(line("total", all, allOutcomes, allLate, seconds));
+        }
+        return report.toString();
+    }
+
+    private static String line(String name, long[] latencies, long[] outcomes, long late, double seconds) {
+        Arrays.sort(latencies);
+        long ok = outcomes[Outcome.OK.ordinal()];
+        double errorPercent = latencies.length == 0 ? 0 : 100.0 * (latencies.length - ok) / latencies.length;
+        return String.format(Locale.ROOT, "%-10s %9d %8.1f %8.1f %6.1f %6d %7d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            name, latencies.length, latencies.length / seconds, ok / seconds, errorPercent,
+            outcomes[Outcome.SERVER_ERROR.ordinal()], outcomes[Outcome.TIMEOUT.ordinal()],
+            outcomes[Outcome.OTHER_ERROR.ordinal()], late,
+            percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 95),
+            percentile(latencies, 99), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    //nearest rank, in milliseconds
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1e6;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    //weights such as dashboard=40,filter=25 become a 100-slot table to pick from at random
+    private static Endpoint[] schedule(String mix) {
+        List<Endpoint> slots = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            Endpoint endpoint = Endpoint.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(pair[1].trim());
+            for (int i = 0; i < weight; i++) {
+                slots.add(endpoint);
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Empty --mix");
+        }
+        return slots.toArray(Endpoint[]::new);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    //per worker thread, so recording needs no synchronization
+    private static final class Recorder {
+        private final Map<Endpoint, long[]> latencies = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Map<Outcome, Long>> outcomes = new EnumMap<>(Endpoint.class);
+        //sent in the window, still running when it closed
+        private final Map<Endpoint, Long> late = new EnumMap<>(Endpoint.class);
+
+        void record(Endpoint endpoint, long nanos, Outcome outcome) {
+            long[] values = latencies.computeIfAbsent(endpoint, e -> new long[1024]);
+            int count = counts.getOrDefault(endpoint, 0);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                latencies.put(endpoint, values);
+            }
+            values[count] = nanos;
+            counts.put(endpoint, count + 1);
+            outcomes(endpoint).merge(outcome, 1L, Long::sum);
+        }
+
+        Map<Outcome, Long> outcomes(Endpoint endpoint) {
+            return outcomes.computeIfAbsent(endpoint, e -> new EnumMap<>(Outcome.class));
+        }
+
+        long[] latencies(Endpoint endpoint) {
+            long[] values = latencies.get(endpoint);
+            return values == null ? new long[0] : Arrays.copyOf(values, counts.get(endpoint));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Throughput at high connection counts, platform vs virtual threads. Builds the app with the
+# loadtest Maven profile, then for each mode starts it on the loadtest Spring profile, drives it with
+# LoadGenerator and stops it. Reports go to loadtest/results/threading-<mode>.txt.
+#
+#   loadtest/compare-threading.sh [concurrency=2000] [duration-seconds=60]
+#
+# Compare on ok/s and err%, not req/s. Run it once with a concurrency below the Hikari pool size
+# (10) as well: that is the unsaturated baseline the high-concurrency numbers should be read against.
+#
+# Raise the open-file limit first (ulimit -n 65536): each mode holds that many sockets on both ends.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONCURRENCY=${1:-2000}
+DURATION=${2:-60}
+PROFILES=${PROFILES:-50}
+RESULTS=loadtest/results
+mkdir -p "$RESULTS"
+
+mvn -B -q -Ploadtest -DskipTests package
+JAR=$(ls target/moneymanager-*.jar | grep -v original | head -1)
+
+MODES="platform virtual"
+for MODE in $MODES; do
+    VIRTUAL=$([ "$MODE" = virtual ] && echo true || echo false)
+    echo "== $MODE threads, $CONCURRENCY connections"
+    java -jar "$JAR" --spring.profiles.active=loadtest \
+        --spring.threads.virtual.enabled="$VIRTUAL" \
+        --loadtest.seed.profiles="$PROFILES" \
+        > "$RESULTS/threading-$MODE-server.log" 2>&1 &
+    SERVER=$!
+    trap 'kill $SERVER 2>/dev/null || true' EXIT
+
+    # LoadGenerator retries /login until the server is up and seeded
+    java loadtest/LoadGenerator.java --profiles "$PROFILES" --concurrency "$CONCURRENCY" \
+        --warmup-seconds 15 --duration-seconds "$DURATION" \
+        --out "$RESULTS/threading-$MODE.txt"
+
+    kill "$SERVER"
+    wait "$SERVER" 2>/dev/null || true
+done
+
+echo "== total line per mode"
+printf '%-9s %s\n' mode "$(grep '^endpoint' "$RESULTS/threading-platform.txt")"
+for MODE in $MODES; do
+    printf '%-9s %s\n' "$MODE" "$(grep '^total' "$RESULTS/threading-$MODE.txt")"
+done
@@ -0,0 +1,109 @@
+package com.prasad.moneymanager.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.prasad.moneymanager.entity.CategoryEntity;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.CategoryRepository;
+import com.prasad.moneymanager.repository.ProfileRepository;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+//Hibernate second-level cache for the rarely changing rows: categories and profiles (entity regions) and the
+//per-profile category and by-email profile lookups (query regions). The caches are local to this instance,
+//bounded by cache.*.max-entries and expire after cache.*.ttl-seconds. Writes made through Hibernate evict
+//or replace the cached rows and invalidate the cached queries straight away; the TTL only bounds how long
+//another instance, or a change made outside Hibernate, can go unnoticed. Hit/miss counts are published
+//as cache.gets{cache=<region>,result=hit|miss}.
+@Configuration
+public class CacheConfig {
+
+    //last write time per table; consulted by every cached query, so it must never evict or expire
+    private static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+    //created by Hibernate whenever the query cache is on; the queries here all name their own region
+    private static final String DEFAULT_QUERY_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    @Value("${cache.category.max-entries:10000}")
+    private long categoryMaxEntries;
+
+    @Value("${cache.category.ttl-seconds:600}")
+    private long categoryTtlSeconds;
+
+    @Value("${cache.profile.max-entries:10000}")
+    private long profileMaxEntries;
+
+    @Value("${cache.profile.ttl-seconds:300}")
+    private long profileTtlSeconds;
+
+    @Value("${cache.query.max-entries:20000}")
+    private long queryMaxEntries;
+
+    @Value("${cache.query.ttl-seconds:300}")
+    private long queryTtlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(URI.create("moneymanager-hibernate"), provider.getDefaultClassLoader());
+        cacheManager.createCache(CategoryEntity.CACHE_REGION, bounded(categoryMaxEntries, categoryTtlSeconds));
+        cacheManager.createCache(ProfileEntity.CACHE_REGION, bounded(profileMaxEntries, profileTtlSeconds));
+        cacheManager.createCache(CategoryRepository.QUERY_CACHE_REGION, bounded(queryMaxEntries, queryTtlSeconds));
+        cacheManager.createCache(ProfileRepository.QUERY_CACHE_REGION, bounded(queryMaxEntries, queryTtlSeconds));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, bounded(queryMaxEntries, queryTtlSeconds));
+        cacheManager.createCache(TIMESTAMPS_REGION, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            //every region is created above; a new @Cache region must be added there too
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager secondLevelCacheManager) {
+        return registry -> {
+            for (String name : secondLevelCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, secondLevelCacheManager.getCache(name), List.of());
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(ttlSeconds).toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        //Hibernate caches immutable disassembled state, so there is nothing to gain from copying it
+        configuration.setStoreByValue(false);
+        //feeds the JCache statistics that JCacheMetrics reads
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,47 @@
+package com.prasad.moneymanager.config;
+
+import java.time.YearMonth;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.prasad.moneymanager.security.AuthenticatedProfile;
+import com.prasad.moneymanager.service.DataVersionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+//Conditional GET for endpoints whose response only changes with the profile's data version. The weak ETag
+//is W/"<profileId>-<version>" (plus the current month for lists of the current month). A matching
+//If-None-Match is answered with 304 here, before the controller or any service runs, so an unchanged page
+//costs one cached version lookup. The version is read before the response is built, so a write that
+//lands in between can only make the ETag older than the body, never newer.
+@RequiredArgsConstructor
+public class DataVersionEtagInterceptor implements HandlerInterceptor {
+
+    private final DataVersionService dataVersionService;
+    private final boolean monthDependent;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedProfile principal)) {
+            return true;
+        }
+        String tag = principal.id() + "-" + dataVersionService.getVersion(principal.id());
+        if (monthDependent) {
+            tag += "-" + YearMonth.now();
+        }
+        //cacheable by the browser only, and always revalidated
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified("W/\"" + tag + "\"");
+    }
+}
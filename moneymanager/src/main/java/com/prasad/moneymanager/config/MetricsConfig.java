@@ -0,0 +1,20 @@
+package com.prasad.moneymanager.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+//Enables @Timed on service classes. Every public method is recorded under SERVICE_TIMER with
+//class/method tags; percentiles for it, repository calls and HTTP requests are set in application.properties.
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "moneymanager.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.prasad.moneymanager.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.prasad.moneymanager.service.DataVersionService;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersionService dataVersionService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        //open-in-view, registered here instead of by spring.jpa.open-in-view so the streamed downloads can
+        //be left out: its EntityManager keeps the first connection it uses until the response is written
+        OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openInView)
+            .excludePathPatterns("/excel/download/*");
+        //ETags for the pages the frontend re-fetches on every navigation
+        registry.addInterceptor(new DataVersionEtagInterceptor(dataVersionService, false))
+            .addPathPatterns("/dashboard", "/categories", "/categories/*");
+        //these list the current month, so the ETag changes with it
+        registry.addInterceptor(new DataVersionEtagInterceptor(dataVersionService, true))
+            .addPathPatterns("/incomes", "/expenses");
+    }
+}
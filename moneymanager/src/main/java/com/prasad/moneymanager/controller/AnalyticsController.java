@@ -0,0 +1,75 @@
+package com.prasad.moneymanager.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.prasad.moneymanager.dto.CategoryBreakdownDTO;
+import com.prasad.moneymanager.dto.TrendPointDTO;
+import com.prasad.moneymanager.entity.TransactionRollupEntity;
+import com.prasad.moneymanager.service.AnalyticsService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    //e.g. /analytics/trends?type=expense&granularity=month&startDate=2020-01-01&byCategory=true
+    @GetMapping("/trends")
+    public ResponseEntity<?> getTrends(@RequestParam(defaultValue = "expense") String type,
+            @RequestParam(defaultValue = TransactionRollupEntity.MONTH) String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean byCategory){
+        if(!"income".equals(type) && !"expense".equals(type)){
+            return ResponseEntity.badRequest().body("Invalid type. Must be 'income' or 'expense' ");
+        }
+        if(!TransactionRollupEntity.MONTH.equals(granularity) && !TransactionRollupEntity.DAY.equals(granularity)){
+            return ResponseEntity.badRequest().body("Invalid granularity. Must be 'month' or 'day' ");
+        }
+        //defaults to the last twelve months, this one included
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusMonths(11).withDayOfMonth(1);
+        if(start.isAfter(end)){
+            return ResponseEntity.badRequest().body("startDate must not be after endDate");
+        }
+        List<TrendPointDTO> trends = analyticsService.getTrends(type, granularity, start, end, byCategory);
+        return ResponseEntity.ok(trends);
+    }
+
+    //e.g. /analytics/categories?type=expense&startDate=2025-01-01&endDate=2025-01-31
+    @GetMapping("/categories")
+    public ResponseEntity<?> getCategoryBreakdown(@RequestParam(defaultValue = "expense") String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate){
+        if(!"income".equals(type) && !"expense".equals(type)){
+            return ResponseEntity.badRequest().body("Invalid type. Must be 'income' or 'expense' ");
+        }
+        //defaults to the current month
+        LocalDate end = endDate != null ? endDate : LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
+        LocalDate start = startDate != null ? startDate : end.withDayOfMonth(1);
+        if(start.isAfter(end)){
+            return ResponseEntity.badRequest().body("startDate must not be after endDate");
+        }
+        List<CategoryBreakdownDTO> breakdown = analyticsService.getCategoryBreakdown(type, start, end);
+        return ResponseEntity.ok(breakdown);
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(){
+        int rows = analyticsService.rebuildRollupsForCurrentUser();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+}
@@ -1,12 +1,11 @@
 package com.prasad.moneymanager.controller;
 
-import java.util.Map;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.prasad.moneymanager.dto.DashboardDTO;
 import com.prasad.moneymanager.service.DashboardService;
 
 import lombok.RequiredArgsConstructor;
@@ -19,8 +18,8 @@ public class DashboardController {
     private final DashboardService dashboardService;
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getDashboardData(){
-        Map<String,Object> dashboardData = dashboardService.getDashboardData();
+    public ResponseEntity<DashboardDTO> getDashboardData(){
+        DashboardDTO dashboardData = dashboardService.getDashboardData();
         return ResponseEntity.ok(dashboardData);
     }
 }
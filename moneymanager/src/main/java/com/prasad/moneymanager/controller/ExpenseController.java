@@ -1,6 +1,7 @@
 package com.prasad.moneymanager.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -40,4 +41,28 @@ public class ExpenseController {
         expenseService.deleteExpense(id);
         return ResponseEntity.noContent().build();
     }
+
+    //Adds a list of expenses in one request; 400 when any category id is missing or not the user's
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addExpenses(@RequestBody List<ExpenseDTO> dtos){
+        try{
+            List<ExpenseDTO> saved = expenseService.addExpenses(dtos);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        }
+        catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    //Deletes the listed expense ids of the current user and returns how many were deleted
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> deleteExpenses(@RequestBody List<Long> ids){
+        try{
+            int deleted = expenseService.deleteExpenses(ids);
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        }
+        catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
 }
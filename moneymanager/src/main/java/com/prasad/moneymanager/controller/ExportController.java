@@ -1,19 +1,29 @@
 package com.prasad.moneymanager.controller;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.prasad.moneymanager.service.ExpenseService;
+import com.prasad.moneymanager.service.ExportService;
 import com.prasad.moneymanager.service.IncomeService;
+import com.prasad.moneymanager.service.ProfileService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -22,68 +32,104 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ExportController {
 
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
     private final IncomeService incomeService;
     private final ExpenseService expenseService;
-
-    //income
-    @GetMapping("/download/income")
-    public ResponseEntity<byte[]> downloadIncomeExcel() throws IOException {
-
-        ByteArrayInputStream stream = incomeService.generateIncomeExcel();
-        byte[] bytes = stream.readAllBytes();
-
+    private final ExportService exportService;
+    private final ProfileService profileService;
+
+    //type is income or expense; the format comes from ?format=xlsx|csv|ndjson or else the Accept header.
+    //Declared as ResponseEntity<StreamingResponseBody> so MVC streams the body instead of looking for a message converter
+    @GetMapping("/download/{type}")
+    public ResponseEntity<StreamingResponseBody> download(
+            @PathVariable String type,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if(!"income".equals(type) && !"expense".equals(type)){
+            return badRequest("Invalid type. Must be 'income' or 'expense' ");
+        }
+        ExportService.Format exportFormat = resolveFormat(format, accept);
+        if(exportFormat == null){
+            return badRequest("Invalid format. Must be 'xlsx', 'csv' or 'ndjson' ");
+        }
+
+        //the body is written on an async thread without the security context, so resolve the profile here
+        Long profileId = profileService.getCurrentProfileId();
+        StreamingResponseBody body = out ->
+            exportService.write(type, exportFormat, profileId, startDate, endDate, gzip, out);
+
+        String fileName = type + "_details." + exportFormat.getExtension() + (gzip ? ".gz" : "");
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(
-            MediaType.parseMediaType(
-                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-            )
-        );
-
+        headers.setContentType(gzip ? GZIP : exportFormat.getMediaType());
         headers.setContentDisposition(
             ContentDisposition.attachment()
-                .filename("income_details.xlsx")
+                .filename(fileName)
                 .build()
         );
 
-        return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 
+    //the report is built on the export job pool and emailed when ready
     @GetMapping("/email/income")
         public ResponseEntity<String> emailIncomeExcel() {
-
-        incomeService.emailIncomeExcelToUser();
-
-        return ResponseEntity.ok("Income details emailed successfully");
-    }
-
-    //Expense
-    @GetMapping("/download/expense")
-    public ResponseEntity<byte[]> downloadExpenseExcel() throws IOException {
-
-        ByteArrayInputStream stream = expenseService.generateExpenseExcel();
-        byte[] bytes = stream.readAllBytes();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(
-            MediaType.parseMediaType(
-                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
-            )
-        );
-
-        headers.setContentDisposition(
-            ContentDisposition.attachment()
-                .filename("expense_details.xlsx")
-                .build()
-        );
-
-        return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
+        try {
+            incomeService.emailIncomeExcelToUser();
+        }
+        catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many exports in progress, try again later");
+        }
+
+        return ResponseEntity.ok("Income details will be emailed shortly");
     }
 
+    //the report is built on the export job pool and emailed when ready
     @GetMapping("/email/expense")
         public ResponseEntity<String> emailExpenseExcel() {
+        try {
+            expenseService.emailExpenseExcelToUser();
+        }
+        catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many exports in progress, try again later");
+        }
+
+        return ResponseEntity.ok("Expense details will be emailed shortly");
+    }
 
-        expenseService.emailExpenseExcelToUser();
+    private ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return ResponseEntity.badRequest()
+            .contentType(MediaType.TEXT_PLAIN)
+            .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
 
-        return ResponseEntity.ok("Expense details emailed successfully");
+    private ExportService.Format resolveFormat(String format, String accept) {
+        if(format != null){
+            for(ExportService.Format candidate : ExportService.Format.values()){
+                if(candidate.getExtension().equalsIgnoreCase(format)){
+                    return candidate;
+                }
+            }
+            return null;
+        }
+        if(accept != null){
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+            for(MediaType mediaType : accepted){
+                if(mediaType.isWildcardType()){
+                    break;
+                }
+                for(ExportService.Format candidate : ExportService.Format.values()){
+                    if(candidate.getMediaType().isCompatibleWith(mediaType)){
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return ExportService.Format.XLSX;
     }
 }
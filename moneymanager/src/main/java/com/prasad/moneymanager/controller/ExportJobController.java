@@ -0,0 +1,95 @@
+package com.prasad.moneymanager.controller;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.prasad.moneymanager.dto.ExportJobDTO;
+import com.prasad.moneymanager.service.ExportJobService;
+import com.prasad.moneymanager.service.ExportService;
+import com.prasad.moneymanager.service.ProfileService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/export/jobs")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+    private final ProfileService profileService;
+
+    //Queues an export and returns the job right away; poll GET /export/jobs/{id} for its status
+    @PostMapping
+    public ResponseEntity<?> submit(
+            @RequestParam String type,
+            @RequestParam(defaultValue = "xlsx") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        if(!"income".equals(type) && !"expense".equals(type)){
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid type. Must be 'income' or 'expense'"));
+        }
+        ExportService.Format exportFormat = null;
+        for(ExportService.Format candidate : ExportService.Format.values()){
+            if(candidate.getExtension().equalsIgnoreCase(format)){
+                exportFormat = candidate;
+            }
+        }
+        if(exportFormat == null){
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid format. Must be 'xlsx', 'csv' or 'ndjson'"));
+        }
+
+        try{
+            ExportJobDTO job = exportJobService.submit(profileService.getCurrentProfileId(), type, exportFormat, startDate, endDate, null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        }
+        catch(RejectedExecutionException e){
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "Too many exports in progress, try again later"));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJobDTO> getJob(@PathVariable String jobId){
+        return exportJobService.getJob(profileService.getCurrentProfileId(), jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> download(@PathVariable String jobId){
+        Long profileId = profileService.getCurrentProfileId();
+        ExportJobDTO job = exportJobService.getJob(profileId, jobId).orElse(null);
+        if(job == null){
+            return ResponseEntity.notFound().build();
+        }
+        Path file = exportJobService.getArtifact(profileId, jobId).orElse(null);
+        if(file == null){
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Export is " + job.getStatus()));
+        }
+
+        ExportService.Format format = ExportService.Format.valueOf(job.getFormat().toUpperCase());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDisposition(
+            ContentDisposition.attachment()
+                .filename(job.getFileName())
+                .build()
+        );
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
+    }
+}
@@ -3,7 +3,9 @@ package com.prasad.moneymanager.controller;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,6 +17,7 @@ import com.prasad.moneymanager.dto.FilterDTO;
 import com.prasad.moneymanager.dto.IncomeDTO;
 import com.prasad.moneymanager.service.ExpenseService;
 import com.prasad.moneymanager.service.IncomeService;
+import com.prasad.moneymanager.util.KeysetCursor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -27,25 +30,51 @@ public class FilterController {
     private final IncomeService incomeService;
     
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    //start of the range when the filter has no start date (the earliest DATE every supported database accepts)
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1000, 1, 1);
+
     @PostMapping
     public ResponseEntity<?> filterTransactions(@RequestBody FilterDTO filter){
         //preparing the data or validation
-        LocalDate startDate = filter.getStartDate() != null ? filter.getStartDate() : LocalDate.MIN;
+        LocalDate startDate = filter.getStartDate() != null ? filter.getStartDate() : EARLIEST_DATE;
         LocalDate endDate = filter.getEndDate() != null ? filter.getEndDate() : LocalDate.now();
         String keyword = filter.getKeyword() != null ? filter.getKeyword() : "";
         String sortField = filter.getSortField() != null ? filter.getSortField() : "date";
+        if(!KeysetCursor.SORT_FIELDS.contains(sortField)){
+            return ResponseEntity.badRequest().body("Invalid sortField. Must be 'date', 'amount' or 'name' ");
+        }
         Sort.Direction direction = "desc".equalsIgnoreCase(filter.getSortOrder()) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Sort sort = Sort.by(direction,sortField);
+        //id breaks ties so every row has a unique keyset position
+        Sort sort = Sort.by(direction, sortField).and(Sort.by(direction, "id"));
+        int pageSize = filter.getPageSize() != null ? Math.clamp(filter.getPageSize(), 1, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        ScrollPosition position;
+        try{
+            position = KeysetCursor.decode(filter.getCursor(), sortField, direction);
+        }catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body("Invalid cursor. Repeat the first request with the same sort");
+        }
         if("income".equalsIgnoreCase(filter.getType())){
-            List<IncomeDTO> incomes = incomeService.filterIncomes(startDate, endDate, keyword, sort);
-            return ResponseEntity.ok(incomes);
+            Window<IncomeDTO> incomes = incomeService.filterIncomes(startDate, endDate, keyword, sort, position, pageSize);
+            return page(incomes, sortField, direction);
         }
         else if("expense".equalsIgnoreCase(filter.getType())){
-            List<ExpenseDTO> expenses = expenseService.filterExpenses(startDate, endDate, keyword, sort);
-            return ResponseEntity.ok(expenses);
+            Window<ExpenseDTO> expenses = expenseService.filterExpenses(startDate, endDate, keyword, sort, position, pageSize);
+            return page(expenses, sortField, direction);
         }
         else{
             return ResponseEntity.badRequest().body("Invalid type. Must be 'income' or 'expense' ");
         }
     }
+
+    //body stays a plain list; the cursor for the next page travels in a header
+    private <T> ResponseEntity<List<T>> page(Window<T> window, String sortField, Sort.Direction direction){
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if(window.hasNext() && !window.isEmpty()){
+            response.header(NEXT_CURSOR_HEADER, KeysetCursor.encode(sortField, direction, window.positionAt(window.size() - 1)));
+        }
+        return response.body(window.getContent());
+    }
 }
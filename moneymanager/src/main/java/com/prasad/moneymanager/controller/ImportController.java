@@ -0,0 +1,63 @@
+package com.prasad.moneymanager.controller;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.prasad.moneymanager.dto.ImportJobDTO;
+import com.prasad.moneymanager.service.ExportService;
+import com.prasad.moneymanager.service.ImportJobService;
+import com.prasad.moneymanager.service.ProfileService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/import")
+public class ImportController {
+
+    private final ImportJobService importJobService;
+    private final ProfileService profileService;
+
+    //Accepts a CSV or XLSX file with Name, Amount, Category and optional Date columns (the export layout)
+    //and returns the job right away; poll GET /import/jobs/{id} for progress and rejected rows
+    @PostMapping("/{type}")
+    public ResponseEntity<?> submit(@PathVariable String type, @RequestParam("file") MultipartFile file) throws IOException {
+        if(!"income".equals(type) && !"expense".equals(type)){
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid type. Must be 'income' or 'expense'"));
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "";
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        ExportService.Format format = lower.endsWith(".csv") ? ExportService.Format.CSV
+            : lower.endsWith(".xlsx") ? ExportService.Format.XLSX : null;
+        if(format == null || file.isEmpty()){
+            return ResponseEntity.badRequest().body(Map.of("message", "Upload a non-empty .csv or .xlsx file"));
+        }
+
+        try{
+            ImportJobDTO job = importJobService.submit(profileService.getCurrentProfileId(), type, format, fileName, file.getInputStream());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        }
+        catch(RejectedExecutionException e){
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "Too many imports in progress, try again later"));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable String jobId){
+        return importJobService.getJob(profileService.getCurrentProfileId(), jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,6 +1,7 @@
 package com.prasad.moneymanager.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -41,4 +42,28 @@ public class IncomeController {
         incomeService.deleteIncome(id);
         return ResponseEntity.noContent().build();
     }
+
+    //Adds a list of incomes in one request; 400 when any category id is missing or not the user's
+    @PostMapping("/bulk")
+    public ResponseEntity<?> addIncomes(@RequestBody List<IncomeDTO> dtos){
+        try{
+            List<IncomeDTO> saved = incomeService.addIncomes(dtos);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        }
+        catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    //Deletes the listed income ids of the current user and returns how many were deleted
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Map<String, Object>> deleteIncomes(@RequestBody List<Long> ids){
+        try{
+            int deleted = incomeService.deleteIncomes(ids);
+            return ResponseEntity.ok(Map.of("deleted", deleted));
+        }
+        catch(IllegalArgumentException e){
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
 }
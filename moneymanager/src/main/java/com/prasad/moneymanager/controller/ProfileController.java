@@ -57,6 +57,13 @@ public class ProfileController {
         }
     }
 
+    //Signs the current user out everywhere by invalidating every token issued so far
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutEverywhere(){
+        profileService.revokeTokensForCurrentUser();
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<ProfileDTO> getPublicProfile(){
         ProfileDTO profileDTO = profileService.getPublicProfile(null);
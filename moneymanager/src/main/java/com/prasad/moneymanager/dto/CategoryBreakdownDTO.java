@@ -0,0 +1,7 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+//Total, count and share of one category over a date range, produced directly by a GROUP BY query
+public record CategoryBreakdownDTO(Long categoryId, String categoryName, String icon, BigDecimal total, Long count, BigDecimal percentage) {
+}
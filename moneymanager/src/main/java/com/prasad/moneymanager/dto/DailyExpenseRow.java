@@ -0,0 +1,21 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//One expense of the day together with its owner, read by the daily summary job
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyExpenseRow {
+    private Long profileId;
+    private Long id;
+    private String email;
+    private String fullName;
+    private String name;
+    private BigDecimal amount;
+    private String categoryName;
+}
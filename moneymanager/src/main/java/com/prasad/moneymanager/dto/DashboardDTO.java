@@ -0,0 +1,22 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DashboardDTO {
+    private BigDecimal totalBalance;
+    private BigDecimal totalIncome;
+    private BigDecimal totalExpense;
+    private List<ExpenseDTO> recent5Expenses;
+    private List<IncomeDTO> recent5Incomes;
+    private List<RecentTransactionDTO> recentTransactions;
+}
@@ -0,0 +1,21 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//One row of the dashboard snapshot query: the profile totals plus (optionally) one recent transaction
+public interface DashboardSnapshotRow {
+    BigDecimal getTotalIncome();
+    BigDecimal getTotalExpense();
+    String getType();
+    Long getId();
+    String getName();
+    String getIcon();
+    BigDecimal getAmount();
+    LocalDate getDate();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    Long getCategoryId();
+    String getCategoryName();
+}
@@ -0,0 +1,23 @@
+package com.prasad.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmailMessage {
+    private String to;
+    private String subject;
+    private String htmlContent;
+    //optional, base64 encoded
+    private String attachmentContent;
+    private String attachmentName;
+
+    public boolean hasAttachment(){
+        return attachmentContent != null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.prasad.moneymanager.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ExportJobDTO {
+    private String id;
+    private String type;
+    private String format;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status; //QUEUED, RUNNING, COMPLETED or FAILED
+    private String fileName;
+    private Long sizeBytes;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+}
@@ -13,4 +13,6 @@ public class FilterDTO {
     private String keyword;
     private String sortField; //date,amount,name
     private String sortOrder; //asc or desc
+    private Integer pageSize; //defaults to 100, at most 500
+    private String cursor; //X-Next-Cursor of the previous page, empty for the first page
 }
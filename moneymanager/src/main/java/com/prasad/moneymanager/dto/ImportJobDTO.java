@@ -0,0 +1,28 @@
+package com.prasad.moneymanager.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportJobDTO {
+    private String id;
+    private String type;
+    private String format;
+    private String fileName;
+    private String status; //QUEUED, RUNNING, COMPLETED or FAILED
+    private Long rowsRead;
+    private Long imported;
+    private Long failed;
+    private List<ImportRowError> errors; //first rejected rows only
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,14 @@
+package com.prasad.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//A skipped import row: its 1-based row number in the file and why it was rejected
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowError {
+    private int row;
+    private String message;
+}
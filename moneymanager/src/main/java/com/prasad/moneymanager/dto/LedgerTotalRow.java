@@ -0,0 +1,17 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Sum and count of one type of a profile's ledger rows
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerTotalRow {
+    private String type;
+    private BigDecimal total;
+    private Long count;
+}
@@ -0,0 +1,19 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//What a bulk delete needs to reverse an income or expense in the balance and rollups
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionDeltaRow {
+    private Long id;
+    private BigDecimal amount;
+    private LocalDate date;
+    private Long categoryId;
+}
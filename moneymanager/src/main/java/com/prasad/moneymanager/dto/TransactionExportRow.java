@@ -0,0 +1,21 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Flat row read by the export queries; selected with a constructor expression so no entities are materialized
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionExportRow {
+    //keyset position of the next chunk together with date; not written to the export
+    private Long id;
+    private String name;
+    private BigDecimal amount;
+    private LocalDate date;
+    private String categoryName;
+}
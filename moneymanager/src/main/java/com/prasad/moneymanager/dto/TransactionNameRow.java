@@ -0,0 +1,14 @@
+package com.prasad.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Id and name of an income or expense, the input of the name search index
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionNameRow {
+    private Long id;
+    private String name;
+}
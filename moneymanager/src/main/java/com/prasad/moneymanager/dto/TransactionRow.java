@@ -0,0 +1,20 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Read-only view of an income or expense for list endpoints. Spring Data maps the components by name
+//(categoryId -> category.id, categoryName -> category.name), so only these columns are selected.
+public record TransactionRow(
+    Long id,
+    String name,
+    String icon,
+    BigDecimal amount,
+    LocalDate date,
+    Long categoryId,
+    String categoryName,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
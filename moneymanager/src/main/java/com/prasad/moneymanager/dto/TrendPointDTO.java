@@ -0,0 +1,20 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TrendPointDTO {
+    private String period; //yyyy-MM or yyyy-MM-dd
+    private Long categoryId; //null unless grouped by category
+    private String categoryName;
+    private BigDecimal total;
+    private Long count;
+}
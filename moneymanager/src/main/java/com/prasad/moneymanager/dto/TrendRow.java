@@ -0,0 +1,12 @@
+package com.prasad.moneymanager.dto;
+
+import java.math.BigDecimal;
+
+//One period (and optionally one category) of the trends query over tbl_transaction_rollups
+public interface TrendRow {
+    Integer getPeriod();
+    Long getCategoryId();
+    String getCategoryName();
+    BigDecimal getTotal();
+    Long getCount();
+}
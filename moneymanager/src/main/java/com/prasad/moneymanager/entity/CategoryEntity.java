@@ -2,9 +2,12 @@ package com.prasad.moneymanager.entity;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -14,19 +17,27 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Entity
 @Table(name = "tbl_categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CategoryEntity.CACHE_REGION)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class CategoryEntity {
 
+    //second-level cache region, sized in CacheConfig
+    public static final String CACHE_REGION = "category";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -47,4 +58,11 @@ public class CategoryEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "profile_id",nullable = false)
     private ProfileEntity profile;
+
+    //profile_id again, read-only: derived findByProfileId... queries resolve to this column instead of
+    //joining tbl_profiles through the association. Only queries use it; it is not set on new entities
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "profile_id", insertable = false, updatable = false)
+    private Long profileId;
 }
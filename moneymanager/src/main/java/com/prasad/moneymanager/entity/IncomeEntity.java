@@ -5,6 +5,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.SQLUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.Column;
@@ -16,28 +19,49 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_incomes")
+@Table(name = "tbl_transactions")
+//the income rows of the ledger. Ids carried over from the old per-type tables repeat across types,
+//so every statement by id also names the type
+@SQLRestriction("type = 'income'")
+@SQLUpdate(sql = IncomeEntity.UPDATE_SQL)
+@SQLDelete(sql = "DELETE FROM tbl_transactions WHERE id = ? AND type = 'income'")
 public class IncomeEntity {
 
+    public static final String TYPE = "income";
+
+    static final String UPDATE_SQL = "UPDATE tbl_transactions SET amount = ?, category_id = ?, date = ?, icon = ?, name = ?, "
+        + "profile_id = ?, updated_at = ? WHERE id = ? AND type = '" + TYPE + "'";
+
+    //pooled sequence so inserts can be JDBC-batched (IDENTITY forces one round trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "income_seq")
+    @SequenceGenerator(name = "income_seq", sequenceName = LedgerEntryEntity.SEQUENCE, allocationSize = 50)
     private Long id;
     private String name;
     private String icon;
     private LocalDate date;
     private BigDecimal amount;
 
+    //always TYPE; set on insert
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false, updatable = false, length = 16)
+    private String type;
+
     @Column(updatable = false)
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -52,8 +76,16 @@ public class IncomeEntity {
     @JoinColumn(name = "profile_id" , nullable = false)
     private ProfileEntity profile;
 
+    //profile_id again, read-only: derived findByProfileId... queries resolve to this column instead of
+    //joining tbl_profiles through the association. Only queries use it; it is not set on new entities
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "profile_id", insertable = false, updatable = false)
+    private Long profileId;
+
     @PrePersist
     public void prePersist(){
+        this.type = TYPE;
         if(this.date == null){
             this.date = LocalDate.now();
         }
@@ -0,0 +1,47 @@
+package com.prasad.moneymanager.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+//One row of the ledger, income or expense, for queries that span both types and for the bulk
+//operations shared by them. Rows are written through IncomeEntity and ExpenseEntity only.
+@Entity
+@Table(name = "tbl_transactions")
+@IdClass(LedgerEntryKey.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LedgerEntryEntity {
+
+    //ids of both types come from this sequence
+    public static final String SEQUENCE = "tbl_transactions_seq";
+
+    @Id
+    @Column(length = 16)
+    private String type; //income or expense
+
+    @Id
+    private Long id;
+
+    private String name;
+    private String icon;
+    private LocalDate date;
+    private BigDecimal amount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "profile_id", nullable = false)
+    private Long profileId;
+}
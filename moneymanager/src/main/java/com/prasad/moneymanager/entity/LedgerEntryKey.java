@@ -0,0 +1,16 @@
+package com.prasad.moneymanager.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Primary key of LedgerEntryEntity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerEntryKey implements Serializable {
+    private String type;
+    private Long id;
+}
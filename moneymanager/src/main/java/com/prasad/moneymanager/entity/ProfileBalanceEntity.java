@@ -0,0 +1,49 @@
+package com.prasad.moneymanager.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Materialized running totals for a profile, kept in step with the tbl_transactions ledger
+@Entity
+@Table(name = "tbl_profile_balances")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProfileBalanceEntity {
+
+    @Id
+    @Column(name = "profile_id")
+    private Long profileId;
+
+    @Column(nullable = false)
+    private BigDecimal totalIncome;
+
+    @Column(nullable = false)
+    private BigDecimal totalExpense;
+
+    @Column(nullable = false)
+    private Long incomeCount;
+
+    @Column(nullable = false)
+    private Long expenseCount;
+
+    private LocalDateTime updatedAt;
+
+    //bumped with every change to the profile's transactions or categories; see DataVersionService
+    @Column(nullable = false)
+    private Long dataVersion;
+
+    public BigDecimal getBalance(){
+        return totalIncome.subtract(totalExpense);
+    }
+}
@@ -2,9 +2,12 @@ package com.prasad.moneymanager.entity;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -19,12 +22,17 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "tbl_profiles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ProfileEntity.CACHE_REGION)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class ProfileEntity {
 
+    //second-level cache region, sized in CacheConfig
+    public static final String CACHE_REGION = "profile";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -44,10 +52,16 @@ public class ProfileEntity {
     private Boolean isActive;
     private String activationToken;
 
+    //bumped to revoke every JWT issued for this profile
+    private Integer tokenVersion;
+
     @PrePersist
     public void prePersists(){
         if(this.isActive == null){
             isActive = false;
         }
+        if(this.tokenVersion == null){
+            tokenVersion = 0;
+        }
     }
 }
@@ -0,0 +1,52 @@
+package com.prasad.moneymanager.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Sum and count of a profile's incomes or expenses per category and per day or month,
+//kept in step with the tbl_transactions ledger
+@Entity
+@Table(name = "tbl_transaction_rollups")
+@IdClass(TransactionRollupKey.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionRollupEntity {
+
+    public static final String DAY = "day";
+    public static final String MONTH = "month";
+
+    @Id
+    @Column(name = "profile_id")
+    private Long profileId;
+
+    @Id
+    private String type; //income or expense
+
+    @Id
+    private String granularity; //day or month
+
+    //yyyyMMdd for days, yyyyMM for months
+    @Id
+    private Integer period;
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private Long transactionCount;
+}
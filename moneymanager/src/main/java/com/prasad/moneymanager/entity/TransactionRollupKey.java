@@ -0,0 +1,19 @@
+package com.prasad.moneymanager.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Primary key of TransactionRollupEntity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionRollupKey implements Serializable {
+    private Long profileId;
+    private String type;
+    private String granularity;
+    private Integer period;
+    private Long categoryId;
+}
@@ -0,0 +1,22 @@
+package com.prasad.moneymanager.loadtest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+//PostgreSQL functions the migrations call that H2 does not have; registered by the INIT of the datasource url
+//of the loadtest and test profiles
+public final class H2Functions {
+
+    private H2Functions() {
+    }
+
+    //setval(sequence, value); the next value is value itself rather than value + increment,
+    //which is fine for V6 as it already leaves a gap past the highest id
+    public static long setval(Connection connection, String sequence, long value) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + value);
+        }
+        return value;
+    }
+}
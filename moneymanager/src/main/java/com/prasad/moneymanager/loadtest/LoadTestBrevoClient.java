@@ -0,0 +1,32 @@
+package com.prasad.moneymanager.loadtest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.prasad.moneymanager.dto.EmailMessage;
+import com.prasad.moneymanager.service.BrevoClient;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+//Stands in for Brevo under the loadtest profile: the email queue and pipeline run as usual,
+//but messages are counted and dropped instead of being sent
+@Component
+@Primary
+@Profile("loadtest")
+@Slf4j
+public class LoadTestBrevoClient extends BrevoClient {
+
+    private final AtomicLong sent = new AtomicLong();
+
+    @Override
+    public Mono<Integer> send(List<EmailMessage> messages) {
+        long total = sent.addAndGet(messages.size());
+        log.debug("Dropped {} emails (total {})", messages.size(), total);
+        return Mono.just(0);
+    }
+}
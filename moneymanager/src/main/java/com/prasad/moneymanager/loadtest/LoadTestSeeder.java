@@ -0,0 +1,139 @@
+package com.prasad.moneymanager.loadtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.prasad.moneymanager.entity.CategoryEntity;
+import com.prasad.moneymanager.entity.ExpenseEntity;
+import com.prasad.moneymanager.entity.IncomeEntity;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.CategoryRepository;
+import com.prasad.moneymanager.repository.ExpenseRepository;
+import com.prasad.moneymanager.repository.IncomeRepository;
+import com.prasad.moneymanager.repository.ProfileRepository;
+import com.prasad.moneymanager.service.RollupService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Fills the in-memory database of the loadtest profile with active users loadtest-1@example.com ..
+//loadtest-N@example.com (all with the same password), each with categories and a year of transactions
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestSeeder {
+
+    public static final String EMAIL_PATTERN = "loadtest-%d@example.com";
+
+    private static final String[] INCOME_CATEGORIES = {"Salary", "Freelance", "Interest", "Dividends"};
+    private static final String[] EXPENSE_CATEGORIES = {"Groceries", "Rent", "Fuel", "Dining", "Utilities", "Entertainment"};
+    private static final String[] EXPENSE_NAMES = {"Supermarket", "Monthly rent", "Petrol", "Coffee", "Dinner out",
+        "Electricity bill", "Internet bill", "Movie tickets", "Pharmacy", "Gym membership"};
+    private static final String[] INCOME_NAMES = {"Paycheck", "Client invoice", "Savings interest", "Stock dividend"};
+
+    private final ProfileRepository profileRepository;
+    private final CategoryRepository categoryRepository;
+    private final IncomeRepository incomeRepository;
+    private final ExpenseRepository expenseRepository;
+    private final RollupService rollupService;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${loadtest.seed.profiles:50}")
+    private int profiles;
+
+    @Value("${loadtest.seed.transactions-per-profile:500}")
+    private int transactionsPerProfile;
+
+    @Value("${loadtest.seed.password:password}")
+    private String password;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        log.info("Seeding {} load test profiles with {} transactions each", profiles, transactionsPerProfile);
+        long start = System.currentTimeMillis();
+        //BCrypt is slow on purpose; every profile shares one hash
+        String encodedPassword = passwordEncoder.encode(password);
+        for (int i = 1; i <= profiles; i++) {
+            int index = i;
+            transactionTemplate.executeWithoutResult(status -> seedProfile(index, encodedPassword));
+        }
+        log.info("Seeding done in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private void seedProfile(int index, String encodedPassword) {
+        String email = String.format(EMAIL_PATTERN, index);
+        if (profileRepository.findByEmail(email).isPresent()) {
+            return;
+        }
+        ProfileEntity profile = profileRepository.save(ProfileEntity.builder()
+            .fullName("Load Test " + index)
+            .email(email)
+            .password(encodedPassword)
+            .isActive(true)
+            .build());
+
+        List<CategoryEntity> incomeCategories = saveCategories(profile, "income", INCOME_CATEGORIES);
+        List<CategoryEntity> expenseCategories = saveCategories(profile, "expense", EXPENSE_CATEGORIES);
+
+        //about one income for every four expenses, spread over the last 13 months
+        LocalDate today = LocalDate.now();
+        List<IncomeEntity> incomes = new ArrayList<>();
+        List<ExpenseEntity> expenses = new ArrayList<>();
+        for (int n = 0; n < transactionsPerProfile; n++) {
+            LocalDate date = today.minusDays((n * 7L) % 395);
+            if (n % 5 == 0) {
+                CategoryEntity category = incomeCategories.get(n % incomeCategories.size());
+                incomes.add(IncomeEntity.builder()
+                    .name(INCOME_NAMES[n % INCOME_NAMES.length] + " " + n)
+                    .icon(category.getIcon())
+                    .amount(BigDecimal.valueOf(1000 + (n * 37L) % 4000))
+                    .date(date)
+                    .category(category)
+                    .profile(profile)
+                    .build());
+            } else {
+                CategoryEntity category = expenseCategories.get(n % expenseCategories.size());
+                expenses.add(ExpenseEntity.builder()
+                    .name(EXPENSE_NAMES[n % EXPENSE_NAMES.length] + " " + n)
+                    .icon(category.getIcon())
+                    .amount(BigDecimal.valueOf(5 + (n * 13L) % 400).add(new BigDecimal("0.99")))
+                    .date(date)
+                    .category(category)
+                    .profile(profile)
+                    .build());
+            }
+        }
+        incomeRepository.saveAll(incomes);
+        expenseRepository.saveAll(expenses);
+        incomeRepository.flush();
+        expenseRepository.flush();
+
+        //rebuilds the balance too
+        rollupService.rebuild(profile.getId());
+    }
+
+    private List<CategoryEntity> saveCategories(ProfileEntity profile, String type, String[] names) {
+        List<CategoryEntity> categories = new ArrayList<>();
+        for (String name : names) {
+            categories.add(CategoryEntity.builder()
+                .name(name)
+                .type(type)
+                .icon(name.toLowerCase())
+                .profile(profile)
+                .build());
+        }
+        return categoryRepository.saveAll(categories);
+    }
+}
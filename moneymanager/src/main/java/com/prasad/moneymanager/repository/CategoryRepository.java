@@ -1,21 +1,45 @@
 package com.prasad.moneymanager.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.prasad.moneymanager.entity.CategoryEntity;
 
+import jakarta.persistence.QueryHint;
+
+//The per-profile lookups below go through the query cache; any write to tbl_categories made through
+//Hibernate (saveCategory, updateCategory) invalidates them
 public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>{
+
+    String QUERY_CACHE_REGION = "category-queries";
     
     //select * from tbl_categories where profile_id = ?1
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<CategoryEntity> findByProfileId(Long profileId);
 
     //select * from tbl_categories where id = ?1 and profile_id = ?2
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<CategoryEntity> findByIdAndProfileId(Long id,Long profileId);
 
+    //select * from tbl_categories where id in (?1) and profile_id = ?2
+    List<CategoryEntity> findByIdInAndProfileId(Collection<Long> ids, Long profileId);
+
     //select * from tbl_cetegories where type = ?1 and profile_id = ?2
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<CategoryEntity> findByTypeAndProfileId(String type ,Long profileId);
 
     
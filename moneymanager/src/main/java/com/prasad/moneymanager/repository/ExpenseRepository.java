@@ -1,35 +1,66 @@
 package com.prasad.moneymanager.repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.prasad.moneymanager.dto.CategoryBreakdownDTO;
+import com.prasad.moneymanager.dto.DailyExpenseRow;
+import com.prasad.moneymanager.dto.TransactionExportRow;
+import com.prasad.moneymanager.dto.TransactionNameRow;
+import com.prasad.moneymanager.dto.TransactionRow;
 import com.prasad.moneymanager.entity.ExpenseEntity;
 
+//expenses are the type = 'expense' rows of tbl_transactions (see ExpenseEntity)
 public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Long>{
 
-    //select * from tbl_expense where profileId = ?1 order by date desc
-    List<ExpenseEntity> findByProfileIdOrderByDateDesc(Long profileId);
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'expense' and profileId = ?1 order by date desc limit 5
+    List<TransactionRow> findTop5ByProfileIdOrderByDateDesc(Long profileId);
 
-    //select * from tbl_expense where profileId = ?1 order by date desc limit 5
-    List<ExpenseEntity> findTop5ByProfileIdOrderByDateDesc(Long profileId);
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'expense' and profileId = ?1 date between ?2 and ?3 and name like %?4%
+    //  and (sortField, id) after the scroll position order by sortField, id limit ?n
+    Window<TransactionRow> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(Long profileId, LocalDate startDate, LocalDate endDate, String keyword, ScrollPosition position, Sort sort, Limit limit);
 
-    @Query("SELECT SUM(e.amount) FROM ExpenseEntity e WHERE e.profile.id = :profileId")
-    BigDecimal findTotalExpenseByProfileId(@Param("profileId") Long profileId);
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'expense' and profileId = ?1 date between ?2 and ?3 and id in (?4)
+    //  and (sortField, id) after the scroll position order by sortField, id limit ?n
+    Window<TransactionRow> findByProfileIdAndDateBetweenAndIdIn(Long profileId, LocalDate startDate, LocalDate endDate, Collection<Long> ids, ScrollPosition position, Sort sort, Limit limit);
 
-    //select * from tbl_expense where profileId = ?1 date between ?2 and ?3 and name like %?4%
-    List<ExpenseEntity> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,Sort sort);
+    //select id, name from tbl_transactions where type = 'expense' and profileId = ?1
+    @Query("SELECT new com.prasad.moneymanager.dto.TransactionNameRow(e.id, e.name) FROM ExpenseEntity e WHERE e.profile.id = :profileId")
+    List<TransactionNameRow> findNamesByProfileId(@Param("profileId") Long profileId);
 
-    //select * from tbl_expense where profileId = ?1 and date between ?2 and ?3
-    List<ExpenseEntity> findByProfileIdAndDateBetween(Long profileId, LocalDate startDate, LocalDate endDate);
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'expense' and profileId = ?1 and date between ?2 and ?3
+    List<TransactionRow> findByProfileIdAndDateBetween(Long profileId, LocalDate startDate, LocalDate endDate);
 
-    //select * from tbl_expense where profileId = ?1 and date = ?2
-    List<ExpenseEntity> findByProfileIdAndDate(Long profileId, LocalDate date);
+    //select id, name, amount, date, category name from tbl_transactions where type = 'expense' and profileId = ?1 and date between ?2 and ?4
+    //  and (date, id) > (?2, ?3) order by date, id limit ?n
+    //one keyset chunk of an export; the next chunk starts after the last row's date and id
+    @Query("SELECT new com.prasad.moneymanager.dto.TransactionExportRow(e.id, e.name, e.amount, e.date, c.name) "
+        + "FROM ExpenseEntity e LEFT JOIN e.category c "
+        + "WHERE e.profile.id = :profileId AND e.date BETWEEN :afterDate AND :endDate "
+        + "AND (e.date > :afterDate OR e.id > :afterId) ORDER BY e.date, e.id")
+    List<TransactionExportRow> findExportRows(@Param("profileId") Long profileId, @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, @Param("endDate") LocalDate endDate, Limit limit);
 
-    List<ExpenseEntity> findByProfileId(Long profileId);
+    //select p.id, e.id, p.email, p.full_name, e.name, e.amount, c.name from tbl_transactions e join tbl_profiles p ... where type = 'expense' and e.date = ?1
+    //  and (profile_id, id) > (?2, ?3) order by profile_id, id limit ?n
+    //one keyset chunk of every profile's expenses for the day; the next chunk starts after the last row's profile and id
+    @Query("SELECT new com.prasad.moneymanager.dto.DailyExpenseRow(p.id, e.id, p.email, p.fullName, e.name, e.amount, c.name) "
+        + "FROM ExpenseEntity e JOIN e.profile p LEFT JOIN e.category c WHERE e.date = :date "
+        + "AND (p.id > :afterProfileId OR (p.id = :afterProfileId AND e.id > :afterId)) ORDER BY p.id, e.id")
+    List<DailyExpenseRow> findDailyExpenseRows(@Param("date") LocalDate date, @Param("afterProfileId") Long afterProfileId, @Param("afterId") Long afterId, Limit limit);
+
+    //select category_id, sum(amount), count(*), sum(amount) * 100 / total from tbl_transactions where type = 'expense' and profileId = ?1 and date between ?2 and ?3 group by category_id
+    @Query("SELECT new com.prasad.moneymanager.dto.CategoryBreakdownDTO(c.id, c.name, c.icon, SUM(e.amount), COUNT(e), "
+        + "ROUND(COALESCE(SUM(e.amount), 0bd) * 100 / NULLIF(SUM(SUM(e.amount)) OVER (), 0bd), 2)) "
+        + "FROM ExpenseEntity e JOIN e.category c WHERE e.profile.id = :profileId AND e.date BETWEEN :startDate AND :endDate "
+        + "GROUP BY c.id, c.name, c.icon ORDER BY SUM(e.amount) DESC, c.name")
+    List<CategoryBreakdownDTO> findCategoryBreakdown(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
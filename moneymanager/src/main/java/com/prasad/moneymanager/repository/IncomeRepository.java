@@ -1,32 +1,57 @@
 package com.prasad.moneymanager.repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import com.prasad.moneymanager.dto.CategoryBreakdownDTO;
+import com.prasad.moneymanager.dto.TransactionExportRow;
+import com.prasad.moneymanager.dto.TransactionNameRow;
+import com.prasad.moneymanager.dto.TransactionRow;
 import com.prasad.moneymanager.entity.IncomeEntity;
 
+//incomes are the type = 'income' rows of tbl_transactions (see IncomeEntity)
 public interface IncomeRepository extends JpaRepository<IncomeEntity, Long>{
 
-    //select * from tbl_incomes where profileId = ?1 order by date desc
-    List<IncomeEntity> findByProfileIdOrderByDateDesc(Long profileId);
-
-    //select * from tbl_incomes where profileId = ?1 order by date desc limit 5
-    List<IncomeEntity> findTop5ByProfileIdOrderByDateDesc(Long profileId);
-
-    @Query("SELECT SUM(i.amount) FROM IncomeEntity i WHERE i.profile.id = :profileId")
-    BigDecimal findTotalIncomeByProfileId(@Param("profileId") Long profileId);
-
-    //select * from tbl_incomes where profileId = ?1 date between ?2 and ?3 and name like %?4%
-    List<IncomeEntity> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(Long profileId, LocalDate startDate, LocalDate endDate, String keyword,Sort sort);
-
-    //select * from tbl_incomes where profileId = ?1 and date between ?2 and ?3
-    List<IncomeEntity> findByProfileIdAndDateBetween(Long profileId, LocalDate startDate, LocalDate endDate);
-
-    List<IncomeEntity> findByProfileId(Long profileId);
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'income' and profileId = ?1 order by date desc limit 5
+    List<TransactionRow> findTop5ByProfileIdOrderByDateDesc(Long profileId);
+
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'income' and profileId = ?1 date between ?2 and ?3 and name like %?4%
+    //  and (sortField, id) after the scroll position order by sortField, id limit ?n
+    Window<TransactionRow> findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(Long profileId, LocalDate startDate, LocalDate endDate, String keyword, ScrollPosition position, Sort sort, Limit limit);
+
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'income' and profileId = ?1 date between ?2 and ?3 and id in (?4)
+    //  and (sortField, id) after the scroll position order by sortField, id limit ?n
+    Window<TransactionRow> findByProfileIdAndDateBetweenAndIdIn(Long profileId, LocalDate startDate, LocalDate endDate, Collection<Long> ids, ScrollPosition position, Sort sort, Limit limit);
+
+    //select id, name from tbl_transactions where type = 'income' and profileId = ?1
+    @Query("SELECT new com.prasad.moneymanager.dto.TransactionNameRow(e.id, e.name) FROM IncomeEntity e WHERE e.profile.id = :profileId")
+    List<TransactionNameRow> findNamesByProfileId(@Param("profileId") Long profileId);
+
+    //select e.id, e.name, e.icon, e.amount, e.date, c.id, c.name, e.created_at, e.updated_at from tbl_transactions e join tbl_categories c where type = 'income' and profileId = ?1 and date between ?2 and ?3
+    List<TransactionRow> findByProfileIdAndDateBetween(Long profileId, LocalDate startDate, LocalDate endDate);
+
+    //select id, name, amount, date, category name from tbl_transactions where type = 'income' and profileId = ?1 and date between ?2 and ?4
+    //  and (date, id) > (?2, ?3) order by date, id limit ?n
+    //one keyset chunk of an export; the next chunk starts after the last row's date and id
+    @Query("SELECT new com.prasad.moneymanager.dto.TransactionExportRow(i.id, i.name, i.amount, i.date, c.name) "
+        + "FROM IncomeEntity i LEFT JOIN i.category c "
+        + "WHERE i.profile.id = :profileId AND i.date BETWEEN :afterDate AND :endDate "
+        + "AND (i.date > :afterDate OR i.id > :afterId) ORDER BY i.date, i.id")
+    List<TransactionExportRow> findExportRows(@Param("profileId") Long profileId, @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, @Param("endDate") LocalDate endDate, Limit limit);
+
+    //select category_id, sum(amount), count(*), sum(amount) * 100 / total from tbl_transactions where type = 'income' and profileId = ?1 and date between ?2 and ?3 group by category_id
+    @Query("SELECT new com.prasad.moneymanager.dto.CategoryBreakdownDTO(c.id, c.name, c.icon, SUM(i.amount), COUNT(i), "
+        + "ROUND(COALESCE(SUM(i.amount), 0bd) * 100 / NULLIF(SUM(SUM(i.amount)) OVER (), 0bd), 2)) "
+        + "FROM IncomeEntity i JOIN i.category c WHERE i.profile.id = :profileId AND i.date BETWEEN :startDate AND :endDate "
+        + "GROUP BY c.id, c.name, c.icon ORDER BY SUM(i.amount) DESC, c.name")
+    List<CategoryBreakdownDTO> findCategoryBreakdown(@Param("profileId") Long profileId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
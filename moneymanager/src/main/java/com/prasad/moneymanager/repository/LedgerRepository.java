@@ -0,0 +1,39 @@
+package com.prasad.moneymanager.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.prasad.moneymanager.dto.LedgerTotalRow;
+import com.prasad.moneymanager.dto.TransactionDeltaRow;
+import com.prasad.moneymanager.entity.LedgerEntryEntity;
+import com.prasad.moneymanager.entity.LedgerEntryKey;
+
+import jakarta.persistence.LockModeType;
+
+//Queries over tbl_transactions that are the same for incomes and expenses; type is "income" or "expense"
+public interface LedgerRepository extends JpaRepository<LedgerEntryEntity, LedgerEntryKey>{
+
+    //select id, amount, date, category_id from tbl_transactions where type = ?1 and id in (?2) and profile_id = ?3 for update
+    //locks the rows a bulk delete is about to remove so their amounts can be reversed exactly
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.prasad.moneymanager.dto.TransactionDeltaRow(t.id, t.amount, t.date, t.categoryId) "
+        + "FROM LedgerEntryEntity t WHERE t.type = :type AND t.id IN :ids AND t.profileId = :profileId")
+    List<TransactionDeltaRow> findDeltasForUpdate(@Param("type") String type, @Param("ids") Collection<Long> ids, @Param("profileId") Long profileId);
+
+    //delete from tbl_transactions where type = ?1 and id in (?2) and profile_id = ?3
+    @Modifying
+    @Query("DELETE FROM LedgerEntryEntity t WHERE t.type = :type AND t.id IN :ids AND t.profileId = :profileId")
+    int deleteByTypeAndIdIn(@Param("type") String type, @Param("ids") Collection<Long> ids, @Param("profileId") Long profileId);
+
+    //select type, sum(amount), count(*) from tbl_transactions where profile_id = ?1 group by type
+    //both totals of the balance in one scan of the profile's rows
+    @Query("SELECT new com.prasad.moneymanager.dto.LedgerTotalRow(t.type, COALESCE(SUM(t.amount), 0bd), COUNT(t)) "
+        + "FROM LedgerEntryEntity t WHERE t.profileId = :profileId GROUP BY t.type")
+    List<LedgerTotalRow> findTotalsByProfileId(@Param("profileId") Long profileId);
+}
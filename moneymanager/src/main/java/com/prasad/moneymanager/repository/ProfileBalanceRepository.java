@@ -0,0 +1,76 @@
+package com.prasad.moneymanager.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.prasad.moneymanager.dto.DashboardSnapshotRow;
+import com.prasad.moneymanager.entity.ProfileBalanceEntity;
+
+import jakarta.persistence.LockModeType;
+
+public interface ProfileBalanceRepository extends JpaRepository<ProfileBalanceEntity, Long>{
+
+    //balance row joined with the latest 5 incomes and latest 5 expenses, newest first, in one round trip;
+    //each half is a short descending range of the (profile_id, type, date, id) ledger index.
+    //Returns no rows when the profile has no balance row yet
+    @Query(value = """
+        SELECT b.total_income AS totalIncome, b.total_expense AS totalExpense,
+            t.type AS type, t.id AS id, t.name AS name, t.icon AS icon, t.amount AS amount, t.date AS date,
+            t.created_at AS createdAt, t.updated_at AS updatedAt, t.category_id AS categoryId, c.name AS categoryName
+        FROM tbl_profile_balances b
+        LEFT JOIN (
+            (SELECT i.type, i.id, i.name, i.icon, i.amount, i.date, i.created_at, i.updated_at, i.category_id, i.profile_id
+                FROM tbl_transactions i WHERE i.profile_id = :profileId AND i.type = 'income'
+                ORDER BY i.date DESC, i.created_at DESC LIMIT 5)
+            UNION ALL
+            (SELECT e.type, e.id, e.name, e.icon, e.amount, e.date, e.created_at, e.updated_at, e.category_id, e.profile_id
+                FROM tbl_transactions e WHERE e.profile_id = :profileId AND e.type = 'expense'
+                ORDER BY e.date DESC, e.created_at DESC LIMIT 5)
+        ) t ON t.profile_id = b.profile_id
+        LEFT JOIN tbl_categories c ON c.id = t.category_id
+        WHERE b.profile_id = :profileId
+        ORDER BY t.date DESC, t.created_at DESC
+        """, nativeQuery = true)
+    List<DashboardSnapshotRow> findDashboardSnapshot(@Param("profileId") Long profileId);
+
+    //select * from tbl_profile_balances where profile_id = ?1 for update
+    //held while a rebuild reads the ledger, so concurrent deltas wait instead of being overwritten
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ProfileBalanceEntity> findByProfileId(Long profileId);
+
+    //update tbl_profile_balances set total_income = total_income + ?2, income_count = income_count + ?3,
+    //data_version = data_version + 1 where profile_id = ?1
+    @Modifying
+    @Query("UPDATE ProfileBalanceEntity b SET b.totalIncome = b.totalIncome + :amount, b.incomeCount = b.incomeCount + :count, "
+        + "b.dataVersion = b.dataVersion + 1, b.updatedAt = LOCAL DATETIME WHERE b.profileId = :profileId")
+    int addIncome(@Param("profileId") Long profileId, @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    //update tbl_profile_balances set total_expense = total_expense + ?2, expense_count = expense_count + ?3,
+    //data_version = data_version + 1 where profile_id = ?1
+    @Modifying
+    @Query("UPDATE ProfileBalanceEntity b SET b.totalExpense = b.totalExpense + :amount, b.expenseCount = b.expenseCount + :count, "
+        + "b.dataVersion = b.dataVersion + 1, b.updatedAt = LOCAL DATETIME WHERE b.profileId = :profileId")
+    int addExpense(@Param("profileId") Long profileId, @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    //insert an empty balance row unless a concurrent transaction already did
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ProfileBalanceEntity (profileId, totalIncome, totalExpense, incomeCount, expenseCount, dataVersion, updatedAt) "
+        + "VALUES (:profileId, 0bd, 0bd, 0L, 0L, 1L, LOCAL DATETIME) ON CONFLICT DO NOTHING")
+    int insertMissing(@Param("profileId") Long profileId);
+
+    //select data_version from tbl_profile_balances where profile_id = ?1
+    @Query("SELECT b.dataVersion FROM ProfileBalanceEntity b WHERE b.profileId = :profileId")
+    Optional<Long> findDataVersion(@Param("profileId") Long profileId);
+
+    //update tbl_profile_balances set data_version = data_version + 1 where profile_id = ?1
+    @Modifying
+    @Query("UPDATE ProfileBalanceEntity b SET b.dataVersion = b.dataVersion + 1 WHERE b.profileId = :profileId")
+    int bumpDataVersion(@Param("profileId") Long profileId);
+}
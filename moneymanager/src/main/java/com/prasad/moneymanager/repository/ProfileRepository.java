@@ -1,16 +1,43 @@
 package com.prasad.moneymanager.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.prasad.moneymanager.entity.ProfileEntity;
 
+import jakarta.persistence.QueryHint;
+
 public interface ProfileRepository extends JpaRepository<ProfileEntity,Long>{
+
+    String QUERY_CACHE_REGION = "profile-queries";
     
     //select * from tbl_profiles where email = ?
+    //runs several times per login, so the result is query-cached; registration, activation and the
+    //token version bump all write tbl_profiles through Hibernate and invalidate it
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<ProfileEntity> findByEmail(String email);
 
     //select * from tbl_profiles where activation_token = ?
     Optional<ProfileEntity>findByActivationToken(String activationToken);
+
+    //select id from tbl_profiles order by id
+    @Query("SELECT p.id FROM ProfileEntity p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT COALESCE(p.tokenVersion, 0) FROM ProfileEntity p WHERE p.id = :profileId")
+    Optional<Integer> findTokenVersionById(@Param("profileId") Long profileId);
+
+    @Modifying
+    @Query("UPDATE ProfileEntity p SET p.tokenVersion = COALESCE(p.tokenVersion, 0) + 1 WHERE p.id = :profileId")
+    int incrementTokenVersion(@Param("profileId") Long profileId);
 }
@@ -0,0 +1,67 @@
+package com.prasad.moneymanager.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.prasad.moneymanager.dto.TrendRow;
+import com.prasad.moneymanager.entity.TransactionRollupEntity;
+import com.prasad.moneymanager.entity.TransactionRollupKey;
+
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollupEntity, TransactionRollupKey>{
+
+    //update tbl_transaction_rollups set total_amount = total_amount + ?6, transaction_count = transaction_count + ?7 where <key>
+    @Modifying
+    @Query("UPDATE TransactionRollupEntity r SET r.totalAmount = r.totalAmount + :amount, r.transactionCount = r.transactionCount + :count "
+        + "WHERE r.profileId = :profileId AND r.type = :type AND r.granularity = :granularity AND r.period = :period AND r.categoryId = :categoryId")
+    int add(@Param("profileId") Long profileId, @Param("type") String type, @Param("granularity") String granularity,
+        @Param("period") Integer period, @Param("categoryId") Long categoryId, @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    //insert an empty rollup row unless a concurrent transaction already did
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO TransactionRollupEntity (profileId, type, granularity, period, categoryId, totalAmount, transactionCount) "
+        + "VALUES (:profileId, :type, :granularity, :period, :categoryId, 0bd, 0L) ON CONFLICT DO NOTHING")
+    int insertMissing(@Param("profileId") Long profileId, @Param("type") String type, @Param("granularity") String granularity,
+        @Param("period") Integer period, @Param("categoryId") Long categoryId);
+
+    //delete from tbl_transaction_rollups where profile_id = ?1
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM TransactionRollupEntity r WHERE r.profileId = :profileId")
+    int deleteForProfile(@Param("profileId") Long profileId);
+
+    //recompute the rollups of one profile from the ledger, both types in one pass
+    @Modifying(flushAutomatically = true)
+    @Query(REBUILD_PREFIX + "SELECT t.profileId, t.type, 'month', year(t.date) * 100 + month(t.date), t.categoryId, "
+        + "COALESCE(SUM(t.amount), 0bd), COUNT(t) FROM LedgerEntryEntity t WHERE t.profileId = :profileId AND t.date IS NOT NULL "
+        + "GROUP BY t.profileId, t.type, year(t.date) * 100 + month(t.date), t.categoryId")
+    int rebuildMonths(@Param("profileId") Long profileId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(REBUILD_PREFIX + "SELECT t.profileId, t.type, 'day', year(t.date) * 10000 + month(t.date) * 100 + day(t.date), t.categoryId, "
+        + "COALESCE(SUM(t.amount), 0bd), COUNT(t) FROM LedgerEntryEntity t WHERE t.profileId = :profileId AND t.date IS NOT NULL "
+        + "GROUP BY t.profileId, t.type, year(t.date) * 10000 + month(t.date) * 100 + day(t.date), t.categoryId")
+    int rebuildDays(@Param("profileId") Long profileId);
+
+    String REBUILD_PREFIX = "INSERT INTO TransactionRollupEntity (profileId, type, granularity, period, categoryId, totalAmount, transactionCount) ";
+
+    //select period, sum(total_amount), sum(transaction_count) from tbl_transaction_rollups where ... group by period
+    @Query("SELECT r.period AS period, SUM(r.totalAmount) AS total, SUM(r.transactionCount) AS count "
+        + "FROM TransactionRollupEntity r WHERE r.profileId = :profileId AND r.type = :type AND r.granularity = :granularity "
+        + "AND r.period BETWEEN :fromPeriod AND :toPeriod AND r.transactionCount > 0 "
+        + "GROUP BY r.period ORDER BY r.period")
+    List<TrendRow> findTrend(@Param("profileId") Long profileId, @Param("type") String type, @Param("granularity") String granularity,
+        @Param("fromPeriod") Integer fromPeriod, @Param("toPeriod") Integer toPeriod);
+
+    //same rows split by category, with the category name
+    @Query("SELECT r.period AS period, r.categoryId AS categoryId, c.name AS categoryName, r.totalAmount AS total, r.transactionCount AS count "
+        + "FROM TransactionRollupEntity r LEFT JOIN CategoryEntity c ON c.id = r.categoryId "
+        + "WHERE r.profileId = :profileId AND r.type = :type AND r.granularity = :granularity "
+        + "AND r.period BETWEEN :fromPeriod AND :toPeriod AND r.transactionCount > 0 "
+        + "ORDER BY r.period, c.name")
+    List<TrendRow> findTrendByCategory(@Param("profileId") Long profileId, @Param("type") String type, @Param("granularity") String granularity,
+        @Param("fromPeriod") Integer fromPeriod, @Param("toPeriod") Integer toPeriod);
+}
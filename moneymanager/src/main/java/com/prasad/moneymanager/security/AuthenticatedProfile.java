@@ -0,0 +1,12 @@
+package com.prasad.moneymanager.security;
+
+import java.security.Principal;
+
+//Principal built from verified JWT claims, so authenticated requests never have to load the profile row
+public record AuthenticatedProfile(Long id, String email, boolean active, int tokenVersion) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
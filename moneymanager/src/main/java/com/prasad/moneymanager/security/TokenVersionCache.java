@@ -0,0 +1,80 @@
+package com.prasad.moneymanager.security;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.prasad.moneymanager.repository.ProfileRepository;
+
+import lombok.RequiredArgsConstructor;
+
+//Keeps each profile's current token version in memory so the revocation check stays off the database;
+//entries are re-read after a short TTL so revocations made by other instances are picked up
+@Component
+@RequiredArgsConstructor
+public class TokenVersionCache {
+
+    private static final long TTL_MILLIS = 60_000;
+
+    private final ProfileRepository profileRepository;
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    public boolean isCurrent(Long profileId, int tokenVersion){
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(profileId);
+        if(cached != null && cached.isValidAt(now)){
+            return cached.version() == tokenVersion;
+        }
+        Optional<Integer> version = profileRepository.findTokenVersionById(profileId);
+        if(version.isEmpty()){
+            versions.remove(profileId);
+            return false;
+        }
+        //a load that overlapped a revocation must not overwrite the invalidation it left behind
+        versions.compute(profileId, (id, current) -> {
+            if(current != null && current.loadedAt() - now >= 0){
+                return current;
+            }
+            return new CachedVersion(version.get(), now);
+        });
+        return version.get() == tokenVersion;
+    }
+
+    //Invalidates every token issued so far for the profile; the cached version is dropped once the
+    //new one has committed, so no request can load and keep the old one after that
+    @Transactional
+    public void revoke(Long profileId){
+        profileRepository.incrementTokenVersion(profileId);
+        afterCommit(() -> versions.put(profileId, CachedVersion.invalidated()));
+    }
+
+    private void afterCommit(Runnable action){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                action.run();
+            }
+        });
+    }
+
+    //version -1 marks an entry invalidated at loadedAt
+    private record CachedVersion(int version, long loadedAt){
+        static CachedVersion invalidated(){
+            return new CachedVersion(-1, System.nanoTime());
+        }
+
+        boolean isValidAt(long now){
+            return version >= 0 && now - loadedAt < TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.prasad.moneymanager.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.prasad.moneymanager.dto.CategoryBreakdownDTO;
+import com.prasad.moneymanager.dto.TrendPointDTO;
+import com.prasad.moneymanager.dto.TrendRow;
+import com.prasad.moneymanager.entity.TransactionRollupEntity;
+import com.prasad.moneymanager.repository.ExpenseRepository;
+import com.prasad.moneymanager.repository.IncomeRepository;
+import com.prasad.moneymanager.repository.TransactionRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private final TransactionRollupRepository rollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final ProfileService profileService;
+    private final RollupService rollupService;
+
+    //Totals per day or month between two dates, read from the rollups rather than the transactions
+    @Transactional(readOnly = true)
+    public List<TrendPointDTO> getTrends(String type, String granularity, LocalDate startDate, LocalDate endDate, boolean byCategory){
+        Long profileId = profileService.getCurrentProfileId();
+        boolean daily = TransactionRollupEntity.DAY.equals(granularity);
+        int from = daily ? RollupService.dayPeriod(startDate) : RollupService.monthPeriod(startDate);
+        int to = daily ? RollupService.dayPeriod(endDate) : RollupService.monthPeriod(endDate);
+        List<TrendRow> rows = byCategory
+            ? rollupRepository.findTrendByCategory(profileId, type, granularity, from, to)
+            : rollupRepository.findTrend(profileId, type, granularity, from, to);
+        return rows.stream().map(row -> toDto(row, daily, byCategory)).toList();
+    }
+
+    //Sum, count and share per category between two dates, aggregated by the database
+    @Transactional(readOnly = true)
+    public List<CategoryBreakdownDTO> getCategoryBreakdown(String type, LocalDate startDate, LocalDate endDate){
+        Long profileId = profileService.getCurrentProfileId();
+        return "income".equals(type)
+            ? incomeRepository.findCategoryBreakdown(profileId, startDate, endDate)
+            : expenseRepository.findCategoryBreakdown(profileId, startDate, endDate);
+    }
+
+    //Recomputes the current user's rollups from their transactions
+    public int rebuildRollupsForCurrentUser(){
+        return rollupService.rebuild(profileService.getCurrentProfileId());
+    }
+
+    private TrendPointDTO toDto(TrendRow row, boolean daily, boolean byCategory){
+        int period = row.getPeriod();
+        String label = daily
+            ? String.format("%04d-%02d-%02d", period / 10000, period / 100 % 100, period % 100)
+            : String.format("%04d-%02d", period / 100, period % 100);
+        return TrendPointDTO.builder()
+            .period(label)
+            .categoryId(byCategory ? row.getCategoryId() : null)
+            .categoryName(byCategory ? row.getCategoryName() : null)
+            .total(row.getTotal())
+            .count(row.getCount())
+            .build();
+    }
+}
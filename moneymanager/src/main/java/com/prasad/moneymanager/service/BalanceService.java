@@ -0,0 +1,138 @@
+package com.prasad.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.prasad.moneymanager.dto.LedgerTotalRow;
+import com.prasad.moneymanager.entity.IncomeEntity;
+import com.prasad.moneymanager.entity.ProfileBalanceEntity;
+import com.prasad.moneymanager.repository.LedgerRepository;
+import com.prasad.moneymanager.repository.ProfileBalanceRepository;
+import com.prasad.moneymanager.repository.ProfileRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceService {
+
+    private final ProfileBalanceRepository balanceRepository;
+    private final LedgerRepository ledgerRepository;
+    private final DataVersionService dataVersionService;
+    private final ProfileRepository profileRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //Returns the materialized totals of a profile, building them from the ledger on first use
+    @Transactional
+    public ProfileBalanceEntity getBalance(Long profileId){
+        return balanceRepository.findById(profileId)
+        .orElseGet(() -> rebuildBalance(profileId));
+    }
+
+    //Applies an income delta and bumps the data version; must run in the same transaction as the income insert/delete
+    @Transactional
+    public void recordIncome(Long profileId, BigDecimal amount, long count){
+        if(balanceRepository.addIncome(profileId, nullToZero(amount), count) == 0){
+            rebuildBalance(profileId);
+        }
+        dataVersionService.invalidateAfterCommit(profileId);
+    }
+
+    //Applies an expense delta and bumps the data version; must run in the same transaction as the expense insert/delete
+    @Transactional
+    public void recordExpense(Long profileId, BigDecimal amount, long count){
+        if(balanceRepository.addExpense(profileId, nullToZero(amount), count) == 0){
+            rebuildBalance(profileId);
+        }
+        dataVersionService.invalidateAfterCommit(profileId);
+    }
+
+    //Bumps the profile's data version for changes that do not move the totals (categories)
+    @Transactional
+    public void bumpDataVersion(Long profileId){
+        if(balanceRepository.bumpDataVersion(profileId) == 0){
+            //a new balance row already starts past the version reported without one
+            rebuildBalance(profileId);
+        }
+        dataVersionService.invalidateAfterCommit(profileId);
+    }
+
+    //Recomputes a single profile's totals from one grouped scan of its ledger rows
+    @Transactional
+    public ProfileBalanceEntity rebuildBalance(Long profileId){
+        ProfileBalanceEntity balance = lockBalance(profileId);
+        recompute(balance);
+        return balance;
+    }
+
+    //Reconciles every profile's totals with the ledger, one profile per short transaction through the
+    //same locked rebuild, so writers are only ever held up by one profile's scan
+    @Scheduled(cron = "0 30 3 * * *",zone = "IST")
+    public void reconcileBalances(){
+        log.info("Job started : reconcileBalances()");
+        List<Long> profileIds = profileRepository.findAllIds();
+        int corrected = 0;
+        for(Long profileId : profileIds){
+            if(Boolean.TRUE.equals(transactionTemplate.execute(status -> recompute(lockBalance(profileId))))){
+                corrected++;
+            }
+        }
+        log.info("Job completed : reconcileBalances() profiles={} corrected={}", profileIds.size(), corrected);
+    }
+
+    //Locks the balance row for the rest of the transaction, creating it first if needed. Every income/expense
+    //write updates this row before it commits, so while it is held no delta can land for the profile.
+    //Lock first; only a profile without a row yet pays for the insert
+    private ProfileBalanceEntity lockBalance(Long profileId){
+        Optional<ProfileBalanceEntity> balance = balanceRepository.findByProfileId(profileId);
+        if(balance.isPresent()){
+            return balance.get();
+        }
+        balanceRepository.insertMissing(profileId);
+        return balanceRepository.findByProfileId(profileId)
+        .orElseThrow(() -> new RuntimeException("Profile not found"));
+    }
+
+    //Sets the totals from the ledger; the data version moves only if one of them changed
+    private boolean recompute(ProfileBalanceEntity balance){
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        long incomeCount = 0;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        long expenseCount = 0;
+        for(LedgerTotalRow row : ledgerRepository.findTotalsByProfileId(balance.getProfileId())){
+            if(IncomeEntity.TYPE.equals(row.getType())){
+                totalIncome = row.getTotal();
+                incomeCount = row.getCount();
+            }
+            else{
+                totalExpense = row.getTotal();
+                expenseCount = row.getCount();
+            }
+        }
+        balance.setUpdatedAt(LocalDateTime.now());
+        if(totalIncome.compareTo(balance.getTotalIncome()) == 0 && incomeCount == balance.getIncomeCount()
+                && totalExpense.compareTo(balance.getTotalExpense()) == 0 && expenseCount == balance.getExpenseCount()){
+            return false;
+        }
+        balance.setTotalIncome(totalIncome);
+        balance.setIncomeCount(incomeCount);
+        balance.setTotalExpense(totalExpense);
+        balance.setExpenseCount(expenseCount);
+        balance.setDataVersion(balance.getDataVersion() + 1);
+        dataVersionService.invalidateAfterCommit(balance.getProfileId());
+        return true;
+    }
+
+    private BigDecimal nullToZero(BigDecimal amount){
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,148 @@
+package com.prasad.moneymanager.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.prasad.moneymanager.dto.EmailMessage;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+//Thin non-blocking client for Brevo's transactional email API. Several messages without attachments are
+//sent in one call using messageVersions; retryable failures (429, 5xx, I/O) are retried with backoff.
+//Calls share a bounded reactor-netty connection pool, so no thread waits on a Brevo round trip.
+@Component
+@Slf4j
+public class BrevoClient {
+
+    @Value("${brevo.api.url:https://api.brevo.com/v3/smtp/email}")
+    private String apiUrl;
+
+    @Value("${brevo.api.key}")
+    private String apiKey;
+
+    @Value("${spring.mail.properties.mail.smtp.from}")
+    private String fromEmail;
+
+    @Value("${brevo.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${brevo.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${brevo.max-connections:16}")
+    private int maxConnections;
+
+    @Value("${email.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${email.backoff-ms:500}")
+    private long backoffMs;
+
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @PostConstruct
+    void init() {
+        //callers beyond maxConnections wait for a pooled connection rather than opening more
+        connectionProvider = ConnectionProvider.builder("brevo")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs + readTimeoutMs))
+            .maxIdleTime(Duration.ofSeconds(30))
+            .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeoutMs)
+            .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .baseUrl(apiUrl)
+            .defaultHeader("api-key", apiKey)
+            .build();
+    }
+
+    @PreDestroy
+    void close() {
+        connectionProvider.dispose();
+    }
+
+    //Sends the messages in one request; emits the number of retries it took, or the last error.
+    //Messages with an attachment must be sent on their own.
+    public Mono<Integer> send(List<EmailMessage> messages) {
+        Map<String, Object> payload = messages.size() == 1 ? single(messages.get(0)) : batch(messages);
+        AtomicInteger retries = new AtomicInteger();
+        return webClient.post()
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(payload)
+            .retrieve()
+            .toBodilessEntity()
+            .retryWhen(Retry.backoff(maxAttempts - 1, Duration.ofMillis(backoffMs))
+                .jitter(0)
+                .filter(BrevoClient::isRetryable)
+                .doBeforeRetry(signal -> {
+                    retries.incrementAndGet();
+                    log.warn("Brevo call failed (attempt {}/{}), retrying: {}",
+                        signal.totalRetries() + 1, maxAttempts, signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .then(Mono.fromSupplier(retries::get));
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return error instanceof WebClientRequestException;
+    }
+
+    private Map<String, Object> single(EmailMessage message) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sender", Map.of("email", fromEmail));
+        payload.put("to", List.of(Map.of("email", message.getTo())));
+        payload.put("subject", message.getSubject());
+        payload.put("htmlContent", message.getHtmlContent());
+        if (message.hasAttachment()) {
+            payload.put("attachment", List.of(Map.of(
+                "content", message.getAttachmentContent(),
+                "name", message.getAttachmentName()
+            )));
+        }
+        return payload;
+    }
+
+    //global subject/htmlContent come from the first message and every version overrides them
+    private Map<String, Object> batch(List<EmailMessage> messages) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sender", Map.of("email", fromEmail));
+        payload.put("subject", messages.get(0).getSubject());
+        payload.put("htmlContent", messages.get(0).getHtmlContent());
+        List<Map<String, Object>> versions = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            Map<String, Object> version = new LinkedHashMap<>();
+            version.put("to", List.of(Map.of("email", message.getTo())));
+            version.put("subject", message.getSubject());
+            version.put("htmlContent", message.getHtmlContent());
+            versions.add(version);
+        }
+        payload.put("messageVersions", versions);
+        return payload;
+    }
+}
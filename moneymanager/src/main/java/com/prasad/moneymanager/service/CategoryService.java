@@ -3,54 +3,63 @@ package com.prasad.moneymanager.service;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.prasad.moneymanager.config.MetricsConfig;
 import com.prasad.moneymanager.dto.CategoryDTO;
 import com.prasad.moneymanager.entity.CategoryEntity;
 import com.prasad.moneymanager.entity.ProfileEntity;
 import com.prasad.moneymanager.repository.CategoryRepository;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class CategoryService {
     private final ProfileService profileService;
     private final CategoryRepository categoryRepository;
+    private final BalanceService balanceService;
 
     //save category
+    @Transactional
     public CategoryDTO saveCategory(CategoryDTO categoryDTO){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        ProfileEntity profile = profileService.getCurrentProfileReference();
         if(categoryRepository.existsByNameAndProfileId(categoryDTO.getName(), profile.getId())){
             throw new RuntimeException("Category with this name already exists");
         }
 
         CategoryEntity newCategory = toEntity(categoryDTO, profile);
         newCategory = categoryRepository.save(newCategory);
+        balanceService.bumpDataVersion(profile.getId());
 
         return toDTO(newCategory);
     }
 
     //get categories for current user
     public List<CategoryDTO> getCategoriesForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<CategoryEntity> categories = categoryRepository.findByProfileId(profile.getId());
+        Long profileId = profileService.getCurrentProfileId();
+        List<CategoryEntity> categories = categoryRepository.findByProfileId(profileId);
         return categories.stream().map(this::toDTO).toList();
     }
 
     //get categories by type for the current user
     public List<CategoryDTO> getCategoiesByTypeForCurrentUser(String type){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<CategoryEntity> entities = categoryRepository.findByTypeAndProfileId(type, profile.getId());
+        Long profileId = profileService.getCurrentProfileId();
+        List<CategoryEntity> entities = categoryRepository.findByTypeAndProfileId(type, profileId);
         return entities.stream().map(this::toDTO).toList();
     }
 
+    @Transactional
     public CategoryDTO updateCategory(Long categoryId, CategoryDTO dto){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        CategoryEntity existingCategory = categoryRepository.findByIdAndProfileId(categoryId, profile.getId())
+        Long profileId = profileService.getCurrentProfileId();
+        CategoryEntity existingCategory = categoryRepository.findByIdAndProfileId(categoryId, profileId)
         .orElseThrow(() -> new RuntimeException("Vategory not found or not accessible"));
         existingCategory.setName(dto.getName());
         existingCategory.setIcon(dto.getIcon());
         existingCategory = categoryRepository.save(existingCategory);
+        balanceService.bumpDataVersion(profileId);
         return toDTO(existingCategory);
     }
 
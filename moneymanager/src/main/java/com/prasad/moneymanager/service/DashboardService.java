@@ -1,74 +1,94 @@
 package com.prasad.moneymanager.service;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
 
+import com.prasad.moneymanager.config.MetricsConfig;
+import com.prasad.moneymanager.dto.DashboardDTO;
+import com.prasad.moneymanager.dto.DashboardSnapshotRow;
 import com.prasad.moneymanager.dto.ExpenseDTO;
 import com.prasad.moneymanager.dto.IncomeDTO;
 import com.prasad.moneymanager.dto.RecentTransactionDTO;
-import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.ProfileBalanceRepository;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class DashboardService {
 
-    private final IncomeService incomeService;
-    private final ExpenseService expenseService;
     private final ProfileService profileService;
+    private final BalanceService balanceService;
+    private final ProfileBalanceRepository balanceRepository;
 
-    public Map<String, Object> getDashboardData(){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        Map<String, Object> returnValue = new LinkedHashMap<>();
-        List<IncomeDTO> latestIncomes =  incomeService.getLatest5IncomesForCurrentUser();
-        List<ExpenseDTO> latestExpenses = expenseService.getLatest5ExpensesForCurrentUser();
-        List<RecentTransactionDTO> recentTransactions = Stream.concat(latestIncomes.stream().map(income ->
-            RecentTransactionDTO.builder()
-            .id(income.getId())
-            .profileId(profile.getId())
-            .icon(income.getIcon())
-            .name(income.getName())
-            .amount(income.getAmount())
-            .date(income.getDate())
-            .createdAt(income.getCreatedAt())
-            .updatedAt(income.getUpdatedAt())
-            .type("income")
-            .build()),
-        latestExpenses.stream().map(expense -> 
-            RecentTransactionDTO.builder()
-            .id(expense.getId())
-            .profileId(profile.getId())
-            .icon(expense.getIcon())
-            .name(expense.getName())
-            .amount(expense.getAmount())
-            .date(expense.getDate())
-            .createdAt(expense.getCreatedAt())
-            .updatedAt(expense.getUpdatedAt())
-            .type("expense")
-            .build()))
-        .sorted((a,b) -> {
-            int cmp = b.getDate().compareTo(a.getDate());
-            if(cmp == 0 && a.getCreatedAt() != null && b.getCreatedAt() != null){
-                return b.getCreatedAt().compareTo(a.getCreatedAt());
+    public DashboardDTO getDashboardData(){
+        Long profileId = profileService.getCurrentProfileId();
+        List<DashboardSnapshotRow> rows = balanceRepository.findDashboardSnapshot(profileId);
+        if(rows.isEmpty()){
+            //first visit: materialize the balance row, then read the snapshot again
+            balanceService.rebuildBalance(profileId);
+            rows = balanceRepository.findDashboardSnapshot(profileId);
+        }
+
+        List<IncomeDTO> latestIncomes = new ArrayList<>();
+        List<ExpenseDTO> latestExpenses = new ArrayList<>();
+        List<RecentTransactionDTO> recentTransactions = new ArrayList<>();
+        //rows arrive already merged and sorted newest first
+        for(DashboardSnapshotRow row : rows){
+            if(row.getType() == null){
+                continue;
+            }
+            recentTransactions.add(RecentTransactionDTO.builder()
+                .id(row.getId())
+                .profileId(profileId)
+                .icon(row.getIcon())
+                .name(row.getName())
+                .amount(row.getAmount())
+                .date(row.getDate())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .type(row.getType())
+                .build());
+            if("income".equals(row.getType())){
+                latestIncomes.add(IncomeDTO.builder()
+                    .id(row.getId())
+                    .name(row.getName())
+                    .icon(row.getIcon())
+                    .categoryId(row.getCategoryId())
+                    .categoryName(row.getCategoryName() != null ? row.getCategoryName() : "N?A")
+                    .amount(row.getAmount())
+                    .date(row.getDate())
+                    .createdAt(row.getCreatedAt())
+                    .updatedAt(row.getUpdatedAt())
+                    .build());
+            }
+            else{
+                latestExpenses.add(ExpenseDTO.builder()
+                    .id(row.getId())
+                    .name(row.getName())
+                    .icon(row.getIcon())
+                    .categoryId(row.getCategoryId())
+                    .categoryName(row.getCategoryName() != null ? row.getCategoryName() : "N?A")
+                    .amount(row.getAmount())
+                    .date(row.getDate())
+                    .createdAt(row.getCreatedAt())
+                    .updatedAt(row.getUpdatedAt())
+                    .build());
             }
-            return cmp;
-        }).collect(Collectors.toList());
-        returnValue.put("totalBalance", 
-            incomeService.getTotalIncomeForCurrentUser()
-                .subtract(expenseService.getTotalExpenseForCurrentUser()));
-        
-        returnValue.put("totalIncome", incomeService.getTotalIncomeForCurrentUser());
-        returnValue.put("totalExpense", expenseService.getTotalExpenseForCurrentUser());
-        returnValue.put("recent5Expenses", latestExpenses);
-        returnValue.put("recent5Incomes", latestIncomes);
-        returnValue.put("recentTransactions", recentTransactions);
+        }
 
-        return returnValue;
+        DashboardSnapshotRow totals = rows.get(0);
+        return DashboardDTO.builder()
+        .totalBalance(totals.getTotalIncome().subtract(totals.getTotalExpense()))
+        .totalIncome(totals.getTotalIncome())
+        .totalExpense(totals.getTotalExpense())
+        .recent5Expenses(latestExpenses)
+        .recent5Incomes(latestIncomes)
+        .recentTransactions(recentTransactions)
+        .build();
     }
 }
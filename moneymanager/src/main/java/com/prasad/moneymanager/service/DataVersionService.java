@@ -0,0 +1,78 @@
+package com.prasad.moneymanager.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.prasad.moneymanager.repository.ProfileBalanceRepository;
+
+import lombok.RequiredArgsConstructor;
+
+//Per-profile data version behind the ETags of the dashboard, category, income and expense GETs. The
+//version lives on the balance row and only ever grows: BalanceService bumps it in the same transaction as
+//every change to a profile's transactions or categories. Reads come from memory; a bump made here drops
+//the cached value once it commits, and entries are re-read after etag.version-ttl-ms so bumps made by
+//other instances are picked up.
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final ProfileBalanceRepository balanceRepository;
+
+    @Value("${etag.version-ttl-ms:5000}")
+    private long ttlMs;
+
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    //0 while the profile has no balance row (rows start at 1)
+    public long getVersion(Long profileId){
+        CachedVersion cached = versions.get(profileId);
+        long now = System.nanoTime();
+        if(cached != null && cached.isValidAt(now, TimeUnit.MILLISECONDS.toNanos(ttlMs))){
+            return cached.version();
+        }
+        long version = balanceRepository.findDataVersion(profileId).orElse(0L);
+        //a load that overlapped a commit must not overwrite the invalidation that commit left behind
+        versions.compute(profileId, (id, current) -> {
+            if(current != null && current.loadedAt() - now >= 0){
+                return current;
+            }
+            return new CachedVersion(version, now);
+        });
+        return version;
+    }
+
+    //Call from the transaction that bumped the profile's version; the cached value is dropped once it commits
+    public void invalidateAfterCommit(Long profileId){
+        afterCommit(() -> versions.put(profileId, CachedVersion.invalidated()));
+    }
+
+    private void afterCommit(Runnable action){
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit(){
+                action.run();
+            }
+        });
+    }
+
+    //version -1 marks an entry invalidated at loadedAt
+    private record CachedVersion(long version, long loadedAt){
+        static CachedVersion invalidated(){
+            return new CachedVersion(-1, System.nanoTime());
+        }
+
+        boolean isValidAt(long now, long ttlNanos){
+            return version >= 0 && now - loadedAt < ttlNanos;
+        }
+    }
+}
@@ -1,65 +1,146 @@
 package com.prasad.moneymanager.service;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.prasad.moneymanager.dto.EmailMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
 
+//Queues outgoing mail and delivers it through one reactive pipeline: queued messages are grouped into
+//batches of up to email.batch.size (those without attachments go out in a single Brevo call) and at most
+//email.max-in-flight Brevo calls run at once. Messages only enter the pipeline as it requests them, so when
+//Brevo slows down the queue fills, and producers wait for room - parked until a send frees it, not polling -
+//instead of holding a thread per message. On shutdown the queue is drained for up to
+//email.shutdown-timeout-ms before the pipeline is cancelled.
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private static final String BREVO_API_URL =
-            "https://api.brevo.com/v3/smtp/email";
+    private final BrevoClient brevoClient;
+    private final MeterRegistry meterRegistry;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${email.queue.capacity:10000}")
+    private int queueCapacity;
 
-    @Value("${brevo.api.key}")
-    private String apiKey;
+    @Value("${email.queue.offer-timeout-ms:30000}")
+    private long offerTimeoutMs;
 
-    @Value("${spring.mail.properties.mail.smtp.from}")
-    private String fromEmail;
+    @Value("${email.batch.size:50}")
+    private int batchSize;
 
-    @Async
-    public void sendEmail(String to, String subject, String body) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("api-key", apiKey);
-
-            String payload = """
-            {
-              "sender": { "email": "%s" },
-              "to": [ { "email": "%s" } ],
-              "subject": "%s",
-              "htmlContent": "%s"
-            }
-            """.formatted(fromEmail, to, subject, body);
+    //how long a partly filled batch waits for more messages
+    @Value("${email.batch.window-ms:200}")
+    private long batchWindowMs;
+
+    @Value("${email.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${email.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
 
-            HttpEntity<String> request =
-                    new HttpEntity<>(payload, headers);
+    private final Object lock = new Object();
+    //guarded by lock: messages not yet requested by the pipeline, and the producers waiting for room
+    private final Deque<EmailMessage> queue = new ArrayDeque<>();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private boolean closing;
+    private boolean completed;
 
-            restTemplate.postForEntity(
-                    BREVO_API_URL,
-                    request,
-                    String.class
-            );
+    //drain() runs on one thread at a time; calls made meanwhile make it loop again
+    private final AtomicInteger drainCalls = new AtomicInteger();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private FluxSink<EmailMessage> pipelineSink;
+    private Disposable pipeline;
 
-            log.info("Verification email sent to {}", to);
+    private Counter sentCounter;
+    private Counter failedCounter;
+    private Counter droppedCounter;
+    private Counter retryCounter;
+    private Timer sendTimer;
 
-        } catch (Exception e) {
-            // DO NOT throw — async must never break registration
-            log.error("Email sending failed for {}", to, e);
+    private record Waiter(EmailMessage message, MonoSink<Boolean> result) {
+    }
+
+    @PostConstruct
+    void start() {
+        meterRegistry.gauge("email.queue.size", this, EmailService::queued);
+        sentCounter = meterRegistry.counter("email.messages", "outcome", "sent");
+        failedCounter = meterRegistry.counter("email.messages", "outcome", "failed");
+        droppedCounter = meterRegistry.counter("email.messages", "outcome", "dropped");
+        retryCounter = meterRegistry.counter("email.retries");
+        sendTimer = Timer.builder("email.send")
+            .description("Latency of one Brevo send call, including retries")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+
+        pipeline = Flux.<EmailMessage>create(sink -> {
+                pipelineSink = sink;
+                sink.onRequest(n -> drain());
+            })
+            .bufferTimeout(batchSize, Duration.ofMillis(batchWindowMs), true)
+            //one batch ahead of the Brevo calls, not the default 256: demand must come from deliver()
+            .concatMapIterable(this::toCalls, 1)
+            .flatMap(this::deliver, maxInFlight)
+            .doFinally(signal -> terminated.countDown())
+            .subscribe();
+    }
+
+    //Stops taking new mail, then waits for what is queued and in flight to be sent
+    @PreDestroy
+    void stop() {
+        synchronized (lock) {
+            closing = true;
+        }
+        drain();
+        try {
+            if (!terminated.await(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Shutting down with {} undelivered emails", queued());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pipeline.dispose();
+        List<Waiter> abandoned;
+        synchronized (lock) {
+            abandoned = new ArrayList<>(waiters);
+            waiters.clear();
         }
+        abandoned.forEach(waiter -> waiter.result().success(Boolean.FALSE));
     }
 
+    //Blocking forms for request and job threads: wait up to email.queue.offer-timeout-ms when the
+    //queue is full and never throw, so callers such as registration are not broken by mail problems
+    public void sendEmail(String to, String subject, String body) {
+        enqueue(EmailMessage.builder()
+            .to(to)
+            .subject(subject)
+            .htmlContent(body)
+            .build());
+    }
 
-    @Async
     public void sendEmailWithAttachment(
             String to,
             String subject,
@@ -67,36 +148,171 @@ public class EmailService {
             String base64File,
             String fileName
     ) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("api-key", apiKey);
-
-            String payload = """
-            {
-            "sender": { "email": "%s" },
-            "to": [ { "email": "%s" } ],
-            "subject": "%s",
-            "htmlContent": "%s",
-            "attachment": [
-                {
-                "content": "%s",
-                "name": "%s"
+        enqueue(EmailMessage.builder()
+            .to(to)
+            .subject(subject)
+            .htmlContent(body)
+            .attachmentContent(base64File)
+            .attachmentName(fileName)
+            .build());
+    }
+
+    //Emits true once the message is queued, false if it was dropped because the queue stayed full for
+    //email.queue.offer-timeout-ms or the service is shutting down
+    public Mono<Boolean> send(EmailMessage message) {
+        return Mono.create(result -> {
+            Waiter waiter = new Waiter(message, result);
+            boolean queued;
+            boolean rejected;
+            synchronized (lock) {
+                rejected = closing;
+                //behind any producer already waiting, so a full queue is served in arrival order
+                queued = !rejected && waiters.isEmpty() && queue.size() < queueCapacity;
+                if (queued) {
+                    queue.add(message);
+                }
+                else if (!rejected) {
+                    waiters.add(waiter);
                 }
-            ]
             }
-            """.formatted(fromEmail, to, subject, body, base64File, fileName);
+            if (rejected) {
+                drop(message, "Email service is shutting down");
+                result.success(Boolean.FALSE);
+                return;
+            }
+            if (!queued) {
+                Disposable timeout = Schedulers.parallel().schedule(() -> giveUp(waiter), offerTimeoutMs, TimeUnit.MILLISECONDS);
+                result.onDispose(timeout);
+                result.onCancel(() -> {
+                    synchronized (lock) {
+                        waiters.remove(waiter);
+                    }
+                });
+            }
+            drain();
+            if (queued) {
+                result.success(Boolean.TRUE);
+            }
+        });
+    }
 
-            HttpEntity<String> request = new HttpEntity<>(payload, headers);
+    //For large batches: the messages are pulled one at a time as the queue has room, so a slow Brevo
+    //slows the producer down rather than buffering the whole batch. Emits how many were queued.
+    public Mono<Long> sendAll(Flux<EmailMessage> messages) {
+        return messages
+            .concatMap(this::send)
+            .filter(Boolean::booleanValue)
+            .count();
+    }
 
-            restTemplate.postForEntity(BREVO_API_URL, request, String.class);
+    private void enqueue(EmailMessage message) {
+        try {
+            send(message).block();
+        }
+        catch (RuntimeException e) {
+            droppedCounter.increment();
+            log.error("Could not queue email to {}", message.getTo(), e);
+        }
+    }
 
-            log.info("Email with attachment sent to {}", to);
+    private void giveUp(Waiter waiter) {
+        boolean waiting;
+        synchronized (lock) {
+            waiting = waiters.remove(waiter);
+        }
+        if (waiting) {
+            drop(waiter.message(), "Email queue full");
+            waiter.result().success(Boolean.FALSE);
+        }
+    }
+
+    private void drop(EmailMessage message, String reason) {
+        droppedCounter.increment();
+        log.error("{}, dropping email to {}", reason, message.getTo());
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to send email with attachment to {}", to, e);
+    //Hands the pipeline as many queued messages as it has requested, lets waiting producers into the room
+    //that leaves, and completes the pipeline once a shutdown has nothing left to send
+    private void drain() {
+        if (drainCalls.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            List<EmailMessage> ready = new ArrayList<>();
+            List<Waiter> admitted = new ArrayList<>();
+            boolean complete = false;
+            synchronized (lock) {
+                long requested = pipelineSink.requestedFromDownstream();
+                while (true) {
+                    for (; requested > 0 && !queue.isEmpty(); requested--) {
+                        ready.add(queue.poll());
+                    }
+                    if (waiters.isEmpty() || queue.size() >= queueCapacity) {
+                        break;
+                    }
+                    while (!waiters.isEmpty() && queue.size() < queueCapacity) {
+                        Waiter waiter = waiters.poll();
+                        queue.add(waiter.message());
+                        admitted.add(waiter);
+                    }
+                }
+                if (closing && !completed && queue.isEmpty() && waiters.isEmpty()) {
+                    completed = true;
+                    complete = true;
+                }
+            }
+            ready.forEach(pipelineSink::next);
+            admitted.forEach(waiter -> waiter.result().success(Boolean.TRUE));
+            if (complete) {
+                pipelineSink.complete();
+            }
+            missed = drainCalls.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    private int queued() {
+        synchronized (lock) {
+            return queue.size();
         }
     }
 
+    //messages with an attachment go out on their own, the rest as one batch
+    private List<List<EmailMessage>> toCalls(List<EmailMessage> drained) {
+        List<List<EmailMessage>> calls = new ArrayList<>();
+        List<EmailMessage> batch = new ArrayList<>(drained.size());
+        for (EmailMessage message : drained) {
+            if (message.hasAttachment()) {
+                calls.add(List.of(message));
+            }
+            else {
+                batch.add(message);
+            }
+        }
+        if (!batch.isEmpty()) {
+            calls.add(batch);
+        }
+        return calls;
+    }
 
+    //never errors, so one failed call does not end the pipeline
+    private Mono<Void> deliver(List<EmailMessage> messages) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return brevoClient.send(messages)
+                .doOnNext(retries -> {
+                    retryCounter.increment(retries);
+                    sentCounter.increment(messages.size());
+                    log.info("Sent {} email(s)", messages.size());
+                })
+                .doOnError(e -> {
+                    failedCounter.increment(messages.size());
+                    log.error("Email sending failed for {} recipient(s), first {}", messages.size(), messages.get(0).getTo(), e);
+                })
+                .doFinally(signal -> sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .then()
+                .onErrorComplete();
+        });
+    }
 }
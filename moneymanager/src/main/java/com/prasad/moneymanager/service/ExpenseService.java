@@ -1,100 +1,219 @@
 package com.prasad.moneymanager.service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.Session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.prasad.moneymanager.config.MetricsConfig;
 import com.prasad.moneymanager.dto.ExpenseDTO;
+import com.prasad.moneymanager.dto.TransactionDeltaRow;
+import com.prasad.moneymanager.dto.TransactionNameRow;
+import com.prasad.moneymanager.dto.TransactionRow;
 import com.prasad.moneymanager.entity.CategoryEntity;
 import com.prasad.moneymanager.entity.ExpenseEntity;
 import com.prasad.moneymanager.entity.ProfileEntity;
 import com.prasad.moneymanager.repository.CategoryRepository;
 import com.prasad.moneymanager.repository.ExpenseRepository;
+import com.prasad.moneymanager.repository.LedgerRepository;
+import com.prasad.moneymanager.security.AuthenticatedProfile;
 
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class ExpenseService {
 
     private final CategoryRepository categoryRepository;
     private final ExpenseRepository expenseRepository;
+    private final LedgerRepository ledgerRepository;
     private final ProfileService profileService;
-    private final EmailService emailService;
+    private final BalanceService balanceService;
+    private final RollupService rollupService;
+    private final ExportJobService exportJobService;
+    private final NameSearchIndex nameSearchIndex;
+    private final EntityManager entityManager;
+
+    @Value("${transactions.bulk.max-items:1000}")
+    private int bulkMaxItems;
+
+    @Value("${transactions.bulk.batch-size:500}")
+    private int bulkBatchSize;
 
 
     //Adds a new expense to the database
+    @Transactional
     public ExpenseDTO addExpense(ExpenseDTO dto){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        ProfileEntity profile = profileService.getCurrentProfileReference();
         CategoryEntity category = categoryRepository.findById(dto.getCategoryId())
             .orElseThrow(() -> new RuntimeException("Category not found"));
         ExpenseEntity newExpense = toEntity(dto, profile, category);
         expenseRepository.save(newExpense);
+        nameSearchIndex.recordAdded(profile.getId(), "expense", newExpense.getId(), newExpense.getName());
+        balanceService.recordExpense(profile.getId(), newExpense.getAmount(), 1);
+        rollupService.record(profile.getId(), "expense", newExpense.getDate(), category.getId(), newExpense.getAmount(), 1);
         return toDto(newExpense);
     }
 
     //Retrives all expenses for current month/based on start and end date
     public List<ExpenseDTO> getCurrentMonthExpensesForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         LocalDate now = LocalDate.now();
         LocalDate startDate = now.withDayOfMonth(1);
         LocalDate endDate = now.withDayOfMonth(now.lengthOfMonth());
-        List<ExpenseEntity> list = expenseRepository.findByProfileIdAndDateBetween(profile.getId(), startDate, endDate);
+        List<TransactionRow> list = expenseRepository.findByProfileIdAndDateBetween(profileId, startDate, endDate);
         return list.stream().map(this::toDto).toList();
     }
 
     //Delete expense by id for current user
+    @Transactional
     public void deleteExpense(Long expenseId){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         ExpenseEntity entity = expenseRepository.findById(expenseId)
         .orElseThrow(() -> new RuntimeException("Expense not found"));
 
-        if(!entity.getProfile().getId().equals(profile.getId())){
+        if(!entity.getProfile().getId().equals(profileId)){
             throw new RuntimeException("Unauthorized to delete this expense");
         }
         expenseRepository.delete(entity);
+        nameSearchIndex.recordDeleted(profileId, "expense", entity.getId());
+        balanceService.recordExpense(profileId, entity.getAmount() != null ? entity.getAmount().negate() : null, -1);
+        rollupService.record(profileId, "expense", entity.getDate(), entity.getCategory().getId(), entity.getAmount() != null ? entity.getAmount().negate() : null, -1);
+    }
+
+    //Adds many expenses in one transaction: one IN query validates the categories and the rows go out as JDBC batches
+    @Transactional
+    public List<ExpenseDTO> addExpenses(List<ExpenseDTO> dtos){
+        checkBulkSize(dtos);
+        if(dtos.isEmpty()){
+            return List.of();
+        }
+        ProfileEntity profile = profileService.getCurrentProfileReference();
+        Map<Long, CategoryEntity> categories = findCategories(dtos.stream().map(ExpenseDTO::getCategoryId).toList(), profile.getId());
+
+        List<ExpenseEntity> entities = dtos.stream()
+            .map(dto -> toEntity(dto, profile, categories.get(dto.getCategoryId())))
+            .toList();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(bulkBatchSize);
+        expenseRepository.saveAll(entities);
+        expenseRepository.flush();
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<RollupService.RollupDelta> deltas = new ArrayList<>(entities.size());
+        List<TransactionNameRow> names = new ArrayList<>(entities.size());
+        for(ExpenseEntity entity : entities){
+            total = total.add(entity.getAmount() != null ? entity.getAmount() : BigDecimal.ZERO);
+            deltas.add(new RollupService.RollupDelta(entity.getDate(), entity.getCategory().getId(), entity.getAmount(), 1));
+            names.add(new TransactionNameRow(entity.getId(), entity.getName()));
+        }
+        nameSearchIndex.recordAllAdded(profile.getId(), "expense", names);
+        balanceService.recordExpense(profile.getId(), total, entities.size());
+        rollupService.recordAll(profile.getId(), "expense", deltas);
+        return entities.stream().map(this::toDto).toList();
+    }
+
+    //Deletes the given expenses of the current user with a single DELETE ... WHERE id IN; ids of other users are skipped.
+    //Returns how many rows were deleted
+    @Transactional
+    public int deleteExpenses(Collection<Long> expenseIds){
+        checkBulkSize(expenseIds);
+        if(expenseIds.isEmpty()){
+            return 0;
+        }
+        Long profileId = profileService.getCurrentProfileId();
+        List<TransactionDeltaRow> rows = ledgerRepository.findDeltasForUpdate(ExpenseEntity.TYPE, new HashSet<>(expenseIds), profileId);
+        if(rows.isEmpty()){
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(TransactionDeltaRow::getId).toList();
+        int deleted = ledgerRepository.deleteByTypeAndIdIn(ExpenseEntity.TYPE, ids, profileId);
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<RollupService.RollupDelta> deltas = new ArrayList<>(rows.size());
+        for(TransactionDeltaRow row : rows){
+            BigDecimal negated = row.getAmount() != null ? row.getAmount().negate() : null;
+            total = total.add(negated != null ? negated : BigDecimal.ZERO);
+            deltas.add(new RollupService.RollupDelta(row.getDate(), row.getCategoryId(), negated, -1));
+        }
+        nameSearchIndex.recordAllDeleted(profileId, "expense", ids);
+        balanceService.recordExpense(profileId, total, -rows.size());
+        rollupService.recordAll(profileId, "expense", deltas);
+        return deleted;
     }
 
     //Get latest 5 expenses for current user
     public List<ExpenseDTO> getLatest5ExpensesForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<ExpenseEntity> list = expenseRepository.findTop5ByProfileIdOrderByDateDesc(profile.getId());
+        Long profileId = profileService.getCurrentProfileId();
+        List<TransactionRow> list = expenseRepository.findTop5ByProfileIdOrderByDateDesc(profileId);
         return list.stream().map(this::toDto).toList();
     }
 
     //Get total expenses of current user
     public BigDecimal getTotalExpenseForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        BigDecimal total = expenseRepository.findTotalExpenseByProfileId(profile.getId());
-        return total != null ? total : BigDecimal.ZERO;
+        Long profileId = profileService.getCurrentProfileId();
+        return balanceService.getBalance(profileId).getTotalExpense();
     }
 
     //filter expenses
-    public List<ExpenseDTO> filterExpenses(LocalDate startDate, LocalDate endDate, String Keyword, Sort sort){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<ExpenseEntity> list = expenseRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profile.getId(), startDate, endDate, Keyword, sort);
-        return list.stream().map(this::toDto).toList();
+    //one page after the given keyset position; the sort must end with id so positions are unique
+    public Window<ExpenseDTO> filterExpenses(LocalDate startDate, LocalDate endDate, String Keyword, Sort sort, ScrollPosition position, int pageSize){
+        Long profileId = profileService.getCurrentProfileId();
+        //narrow the keyword through the name index when it can, otherwise let the database match it
+        Optional<Set<Long>> matches = nameSearchIndex.search(profileId, "expense", Keyword);
+        if(matches.isPresent() && matches.get().isEmpty()){
+            return Window.from(List.of(), index -> position);
+        }
+        Window<TransactionRow> window = matches.isPresent()
+            ? expenseRepository.findByProfileIdAndDateBetweenAndIdIn(profileId, startDate, endDate, matches.get(), position, sort, Limit.of(pageSize))
+            : expenseRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profileId, startDate, endDate, Keyword, position, sort, Limit.of(pageSize));
+        return window.map(this::toDto);
     }
 
-    //Notifications
-    public List<ExpenseDTO> getExpensesForUserOnDate(Long profileId, LocalDate date){
-        List<ExpenseEntity> list = expenseRepository.findByProfileIdAndDate(profileId, date);
-        return list.stream().map(this::toDto).toList();
+    //helper methods
+    private void checkBulkSize(Collection<?> items){
+        if(items == null){
+            throw new IllegalArgumentException("Request body must be a list");
+        }
+        if(items.size() > bulkMaxItems){
+            throw new IllegalArgumentException("At most " + bulkMaxItems + " expenses per request");
+        }
+    }
+
+    //every category id must exist and belong to the profile
+    private Map<Long, CategoryEntity> findCategories(List<Long> categoryIds, Long profileId){
+        if(categoryIds.contains(null)){
+            throw new IllegalArgumentException("Every expense needs a categoryId");
+        }
+        Set<Long> wanted = new HashSet<>(categoryIds);
+        Map<Long, CategoryEntity> categories = categoryRepository.findByIdInAndProfileId(wanted, profileId).stream()
+            .collect(Collectors.toMap(CategoryEntity::getId, Function.identity()));
+        wanted.removeAll(categories.keySet());
+        if(!wanted.isEmpty()){
+            throw new IllegalArgumentException("Category not found: " + wanted);
+        }
+        return categories;
     }
 
-    //helper methods
     private ExpenseEntity toEntity(ExpenseDTO dto, ProfileEntity profile, CategoryEntity category){
         return ExpenseEntity.builder()
         .name(dto.getName())
@@ -106,6 +225,21 @@ public class ExpenseService {
         .build();
     }
 
+    //package-private for the benchmarks module
+    ExpenseDTO toDto(TransactionRow row){
+        return ExpenseDTO.builder()
+        .id(row.id())
+        .name(row.name())
+        .icon(row.icon())
+        .categoryId(row.categoryId())
+        .categoryName(row.categoryName() != null ? row.categoryName() : "N?A")
+        .amount(row.amount())
+        .date(row.date())
+        .createdAt(row.createdAt())
+        .updatedAt(row.updatedAt())
+        .build();
+    }
+
     private ExpenseDTO toDto(ExpenseEntity entity){
         return ExpenseDTO.builder()
         .id(entity.getId())
@@ -121,63 +255,9 @@ public class ExpenseService {
     }
 
     
-    public ByteArrayInputStream generateExpenseExcel() throws IOException {
-
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<ExpenseEntity> expenses = expenseRepository.findByProfileId(profile.getId());
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Expenses");
-
-        // Header
-        Row header = sheet.createRow(0);
-        String[] columns = {"Name", "Amount", "Date", "Category"};
-
-        for (int i = 0; i < columns.length; i++) {
-            header.createCell(i).setCellValue(columns[i]);
-        }
-
-        // Data rows
-        int rowIdx = 1;
-        for (ExpenseEntity expense : expenses) {
-            Row row = sheet.createRow(rowIdx++);
-            row.createCell(0).setCellValue(expense.getName());
-            row.createCell(1).setCellValue(expense.getAmount().doubleValue());
-            row.createCell(2).setCellValue(expense.getDate().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")));
-            row.createCell(3).setCellValue(expense.getCategory() != null ? expense.getCategory().getName() : "");
-        }
-
-        for (int i = 0; i < columns.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        workbook.write(out);
-        workbook.close();
-
-        return new ByteArrayInputStream(out.toByteArray());
-    }
-
+    //Queues the expense report; it is built on the export pool and emailed when ready
     public void emailExpenseExcelToUser() {
-
-        try {
-            ProfileEntity profile = profileService.getCurrentProfile();
-
-            ByteArrayInputStream stream = generateExpenseExcel();
-            byte[] fileBytes = stream.readAllBytes();
-
-            String base64File = Base64.getEncoder().encodeToString(fileBytes);
-
-            emailService.sendEmailWithAttachment(
-                profile.getEmail(),
-                "Your Expense Report",
-                "<p>Please find attached your expense report.</p>",
-                base64File,
-                "expense_details.xlsx"
-            );
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to email expense report", e);
-        }
+        AuthenticatedProfile profile = profileService.getAuthenticatedProfile();
+        exportJobService.submit(profile.id(), "expense", ExportService.Format.XLSX, null, null, profile.email());
     }
 }
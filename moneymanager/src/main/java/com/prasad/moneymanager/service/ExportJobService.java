@@ -0,0 +1,285 @@
+package com.prasad.moneymanager.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.prasad.moneymanager.dto.ExportJobDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Runs exports off the request thread on a bounded pool. Identical requests for the same profile are
+//coalesced into one job while it is queued or running, and finished files are kept on local disk until
+//their TTL passes. A finished download is handed out again for as long as it is kept and the profile's
+//data version has not moved; a finished email job never is, since asking again means sending again.
+//Files no job knows about (left by a restart or crash) are removed once they are older than the TTL.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobService {
+
+    private final ExportService exportService;
+    private final EmailService emailService;
+    private final DataVersionService dataVersionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${export.jobs.workers:2}")
+    private int workers;
+
+    @Value("${export.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${export.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${export.jobs.dir:${java.io.tmpdir}/moneymanager-exports}")
+    private Path artifactDir;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobsById = new ConcurrentHashMap<>();
+    //latest job per key; failed and expired jobs are dropped
+    private final Map<JobKey, ExportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(artifactDir);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "export-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        //pool size, active threads and queue depth as executor.* gauges
+        new ExecutorServiceMetrics(executor, "export-jobs", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    //Queues an export, or returns the matching job that is queued, running or can be reused.
+    //When emailTo is set the finished file is sent to that address as an attachment.
+    //Throws RejectedExecutionException when the queue is full.
+    public ExportJobDTO submit(Long profileId, String type, ExportService.Format format,
+            LocalDate startDate, LocalDate endDate, String emailTo) {
+        JobKey key = new JobKey(profileId, type, format, startDate, endDate, emailTo,
+            dataVersionService.getVersion(profileId));
+        ExportJob job = jobsByKey.compute(key, (k, current) -> {
+            if (current != null && isReusable(current)) {
+                return current;
+            }
+            ExportJob created = new ExportJob(UUID.randomUUID().toString(), k);
+            jobsById.put(created.id, created);
+            try {
+                executor.execute(() -> run(created));
+            }
+            catch (RuntimeException e) {
+                jobsById.remove(created.id);
+                throw e;
+            }
+            return created;
+        });
+        return toDTO(job);
+    }
+
+    //Job status, visible only to the profile that submitted it
+    public Optional<ExportJobDTO> getJob(Long profileId, String jobId) {
+        return findOwnedJob(profileId, jobId).map(this::toDTO);
+    }
+
+    //File of a completed job, visible only to the profile that submitted it
+    public Optional<Path> getArtifact(Long profileId, String jobId) {
+        return findOwnedJob(profileId, jobId)
+            .filter(job -> job.status == Status.COMPLETED)
+            .map(job -> job.file)
+            .filter(Files::exists);
+    }
+
+    //Removes finished jobs, and their files, once they are older than the TTL; then any other file in the
+    //directory last written before the TTL, which no live job can still be using
+    @Scheduled(fixedDelayString = "${export.jobs.cleanup-interval-ms:60000}")
+    public void cleanupExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobsById.values().removeIf(job -> {
+            if (job.completedAt == null || job.completedAt.plusMinutes(ttlMinutes).isAfter(now)) {
+                return false;
+            }
+            jobsByKey.remove(job.key, job);
+            deleteQuietly(job.file);
+            return true;
+        });
+        deleteOrphanedFiles(Instant.now().minus(Duration.ofMinutes(ttlMinutes)));
+    }
+
+    private boolean isReusable(ExportJob job) {
+        return switch (job.status) {
+            case QUEUED, RUNNING -> true;
+            case COMPLETED -> job.key.emailTo() == null
+                && job.completedAt.plusMinutes(ttlMinutes).isAfter(LocalDateTime.now())
+                && Files.exists(job.file);
+            case FAILED -> false;
+        };
+    }
+
+    private void run(ExportJob job) {
+        job.status = Status.RUNNING;
+        Path file = artifactDir.resolve(job.id + "." + job.key.format().getExtension());
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                exportService.write(job.key.type(), job.key.format(), job.key.profileId(),
+                    job.key.startDate(), job.key.endDate(), false, out);
+            }
+            job.file = file;
+            job.sizeBytes = Files.size(file);
+            if (job.key.emailTo() != null) {
+                emailArtifact(job);
+            }
+            finish(job, Status.COMPLETED);
+        }
+        catch (Exception e) {
+            log.error("Export job {} failed", job.id, e);
+            deleteQuietly(file);
+            job.error = "Export failed";
+            finish(job, Status.FAILED);
+        }
+        finally {
+            //an Error must not leave the job looking in flight, and reused, forever
+            if (job.completedAt == null) {
+                finish(job, Status.FAILED);
+            }
+        }
+    }
+
+    private void finish(ExportJob job, Status status) {
+        //completedAt first: a concurrent submit checks the expiry of any job it sees as completed
+        job.completedAt = LocalDateTime.now();
+        job.status = status;
+        if (!isReusable(job)) {
+            jobsByKey.remove(job.key, job);
+        }
+    }
+
+    private void emailArtifact(ExportJob job) throws IOException {
+        String label = "income".equals(job.key.type()) ? "Income" : "Expense";
+        String base64File = Base64.getEncoder().encodeToString(Files.readAllBytes(job.file));
+        emailService.sendEmailWithAttachment(
+            job.key.emailTo(),
+            "Your " + label + " Report",
+            "<p>Please find attached your " + label.toLowerCase() + " report.</p>",
+            base64File,
+            fileName(job)
+        );
+    }
+
+    private Optional<ExportJob> findOwnedJob(Long profileId, String jobId) {
+        return Optional.ofNullable(jobsById.get(jobId))
+            .filter(job -> job.key.profileId().equals(profileId));
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        return ExportJobDTO.builder()
+        .id(job.id)
+        .type(job.key.type())
+        .format(job.key.format().getExtension())
+        .startDate(job.key.startDate())
+        .endDate(job.key.endDate())
+        .status(job.status.name())
+        .fileName(fileName(job))
+        .sizeBytes(job.sizeBytes)
+        .error(job.error)
+        .createdAt(job.createdAt)
+        .completedAt(job.completedAt)
+        .expiresAt(job.completedAt != null ? job.completedAt.plusMinutes(ttlMinutes) : null)
+        .build();
+    }
+
+    private String fileName(ExportJob job) {
+        return job.key.type() + "_details." + job.key.format().getExtension();
+    }
+
+    private void deleteOrphanedFiles(Instant writtenBefore) {
+        Set<Path> known = new HashSet<>();
+        jobsById.values().forEach(job -> known.add(job.file));
+        try (Stream<Path> files = Files.list(artifactDir)) {
+            files.filter(file -> !known.contains(file) && lastWrittenBefore(file, writtenBefore))
+                .forEach(this::deleteQuietly);
+        }
+        catch (IOException e) {
+            log.warn("Could not list export directory {}", artifactDir, e);
+        }
+    }
+
+    private boolean lastWrittenBefore(Path file, Instant instant) {
+        try {
+            return Files.isRegularFile(file) && Files.getLastModifiedTime(file).toInstant().isBefore(instant);
+        }
+        catch (IOException e) {
+            //deleted meanwhile
+            return false;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn("Could not delete export file {}", file, e);
+        }
+    }
+
+    private enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private record JobKey(Long profileId, String type, ExportService.Format format,
+            LocalDate startDate, LocalDate endDate, String emailTo, long dataVersion) {
+    }
+
+    private static final class ExportJob {
+        private final String id;
+        private final JobKey key;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Path file;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        private ExportJob(String id, JobKey key) {
+            this.id = id;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.prasad.moneymanager.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prasad.moneymanager.dto.TransactionExportRow;
+import com.prasad.moneymanager.repository.ExpenseRepository;
+import com.prasad.moneymanager.repository.IncomeRepository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+//Writes a profile's incomes or expenses to an output stream, reading them in keyset-ordered chunks.
+//Every chunk is its own short read-only query, so a client reading a download slowly never holds a
+//connection or cursor; the export is not a single snapshot, rows written between chunks may or may not
+//be included.
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    //full range used when the caller gives no bounds (the DATE range every supported database accepts)
+    public static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String[] COLUMNS = {"Name", "Amount", "Date", "Category"};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    //rows kept in memory by SXSSF; older rows are flushed to a temp file
+    private static final int ROW_ACCESS_WINDOW = 100;
+    private static final int MAX_COLUMN_CHARS = 255;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final IncomeRepository incomeRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        XLSX("xlsx", MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")),
+        CSV("csv", MediaType.parseMediaType("text/csv")),
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON);
+
+        private final String extension;
+        private final MediaType mediaType;
+    }
+
+    //type is "income" or "expense"; null dates mean unbounded
+    public void write(String type, Format format, Long profileId, LocalDate startDate, LocalDate endDate,
+            boolean gzip, OutputStream out) throws IOException {
+        Iterator<TransactionExportRow> rows = new ChunkedRows(type, profileId, startDate, endDate);
+        GzipStream gzipOut = gzip ? new GzipStream(out) : null;
+        OutputStream target = gzipOut != null ? gzipOut : out;
+        try {
+            switch (format) {
+                case XLSX -> writeExcel(type, rows, target);
+                case CSV -> writeCsv(rows, target);
+                case NDJSON -> writeNdjson(rows, target);
+            }
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+        }
+        finally {
+            if (gzipOut != null) {
+                gzipOut.release();
+            }
+        }
+        out.flush();
+    }
+
+    public void writeExcel(String type, Long profileId, OutputStream out) throws IOException {
+        write(type, Format.XLSX, profileId, null, null, false, out);
+    }
+
+    private void writeExcel(String type, Iterator<TransactionExportRow> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("income".equals(type) ? "Incomes" : "Expenses");
+
+            // Header
+            Row header = sheet.createRow(0);
+            int[] widths = new int[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                header.createCell(i).setCellValue(COLUMNS[i]);
+                widths[i] = COLUMNS[i].length();
+            }
+
+            // Data rows; column widths come from tracked lengths instead of autoSizeColumn
+            int rowIdx = 1;
+            while (rows.hasNext()) {
+                TransactionExportRow data = rows.next();
+                String name = data.getName() != null ? data.getName() : "";
+                String date = data.getDate() != null ? data.getDate().format(DATE_FORMAT) : "";
+                String category = data.getCategoryName() != null ? data.getCategoryName() : "";
+
+                Row row = sheet.createRow(rowIdx++);
+                row.createCell(0).setCellValue(name);
+                if (data.getAmount() != null) {
+                    row.createCell(1).setCellValue(data.getAmount().doubleValue());
+                    widths[1] = Math.max(widths[1], data.getAmount().toPlainString().length());
+                }
+                row.createCell(2).setCellValue(date);
+                row.createCell(3).setCellValue(category);
+
+                widths[0] = Math.max(widths[0], name.length());
+                widths[2] = Math.max(widths[2], date.length());
+                widths[3] = Math.max(widths[3], category.length());
+            }
+
+            for (int i = 0; i < COLUMNS.length; i++) {
+                sheet.setColumnWidth(i, Math.min(widths[i] + 2, MAX_COLUMN_CHARS) * 256);
+            }
+
+            workbook.write(out);
+        }
+        finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    //RFC 4180 CSV with a fixed column order and ISO-8601 dates
+    private void writeCsv(Iterator<TransactionExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            TransactionExportRow row = rows.next();
+            writeCsvField(writer, row.getName());
+            writer.write(',');
+            writer.write(row.getAmount() != null ? row.getAmount().toPlainString() : "");
+            writer.write(',');
+            writer.write(row.getDate() != null ? row.getDate().toString() : "");
+            writer.write(',');
+            writeCsvField(writer, row.getCategoryName());
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    //one JSON object per line: {"name":..,"amount":..,"date":"yyyy-MM-dd","category":..}
+    private void writeNdjson(Iterator<TransactionExportRow> rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                TransactionExportRow row = rows.next();
+                generator.writeStartObject();
+                generator.writeStringField("name", row.getName());
+                if (row.getAmount() != null) {
+                    generator.writeNumberField("amount", row.getAmount());
+                }
+                else {
+                    generator.writeNullField("amount");
+                }
+                generator.writeStringField("date", row.getDate() != null ? row.getDate().toString() : null);
+                generator.writeStringField("category", row.getCategoryName());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private List<TransactionExportRow> findChunk(String type, Long profileId, LocalDate afterDate, Long afterId, LocalDate endDate){
+        if ("income".equals(type)) {
+            return incomeRepository.findExportRows(profileId, afterDate, afterId, endDate, Limit.of(CHUNK_SIZE));
+        }
+        if ("expense".equals(type)) {
+            return expenseRepository.findExportRows(profileId, afterDate, afterId, endDate, Limit.of(CHUNK_SIZE));
+        }
+        throw new IllegalArgumentException("Invalid type. Must be 'income' or 'expense'");
+    }
+
+    //Frees the Deflater's native memory without close(): that would finish a failed export into a
+    //well-formed but truncated .gz, and close the caller's stream
+    private static final class GzipStream extends GZIPOutputStream {
+
+        private GzipStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+        }
+
+        private void release() {
+            def.end();
+        }
+    }
+
+    //rows in (date, id) order; the next chunk is read once the current one is used up
+    private final class ChunkedRows implements Iterator<TransactionExportRow> {
+
+        private final String type;
+        private final Long profileId;
+        private final LocalDate endDate;
+        private LocalDate afterDate;
+        private Long afterId = Long.MIN_VALUE;
+        private Iterator<TransactionExportRow> chunk;
+        private boolean last;
+
+        private ChunkedRows(String type, Long profileId, LocalDate startDate, LocalDate endDate) {
+            this.type = type;
+            this.profileId = profileId;
+            this.afterDate = startDate != null ? startDate : MIN_DATE;
+            this.endDate = endDate != null ? endDate : MAX_DATE;
+            //fails fast on a bad type, before anything is written
+            nextChunk();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!chunk.hasNext() && !last) {
+                nextChunk();
+            }
+            return chunk.hasNext();
+        }
+
+        @Override
+        public TransactionExportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TransactionExportRow row = chunk.next();
+            afterDate = row.getDate();
+            afterId = row.getId();
+            return row;
+        }
+
+        private void nextChunk() {
+            List<TransactionExportRow> rows = findChunk(type, profileId, afterDate, afterId, endDate);
+            last = rows.size() < CHUNK_SIZE;
+            chunk = rows.iterator();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.prasad.moneymanager.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.prasad.moneymanager.dto.ImportJobDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Runs imports off the request thread on a bounded pool. The upload is spooled to local disk first,
+//and the job keeps its progress and rejected rows until the TTL passes after it finishes.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobService {
+
+    private final ImportService importService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${import.jobs.workers:2}")
+    private int workers;
+
+    @Value("${import.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${import.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${import.jobs.dir:${java.io.tmpdir}/moneymanager-imports}")
+    private Path uploadDir;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobsById = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(uploadDir);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        //pool size, active threads and queue depth as executor.* gauges
+        new ExecutorServiceMetrics(executor, "import-jobs", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    //Copies the upload to disk and queues its import. Throws RejectedExecutionException when the queue is full.
+    public ImportJobDTO submit(Long profileId, String type, ExportService.Format format, String fileName, InputStream upload) throws IOException {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), profileId, type, format, fileName);
+        job.file = uploadDir.resolve(job.id + "." + format.getExtension());
+        try (upload) {
+            Files.copy(upload, job.file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        jobsById.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        }
+        catch (RuntimeException e) {
+            jobsById.remove(job.id);
+            deleteQuietly(job.file);
+            throw e;
+        }
+        return toDTO(job);
+    }
+
+    //Job status and progress, visible only to the profile that submitted it
+    public Optional<ImportJobDTO> getJob(Long profileId, String jobId) {
+        return Optional.ofNullable(jobsById.get(jobId))
+            .filter(job -> job.profileId.equals(profileId))
+            .map(this::toDTO);
+    }
+
+    //Forgets finished jobs once they are older than the TTL
+    @Scheduled(fixedDelayString = "${import.jobs.cleanup-interval-ms:60000}")
+    public void cleanupExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobsById.values().removeIf(job -> job.completedAt != null && job.completedAt.plusMinutes(ttlMinutes).isBefore(now));
+    }
+
+    private void run(ImportJob job) {
+        job.status = Status.RUNNING;
+        try {
+            importService.importFile(job.profileId, job.type, job.format, job.file, job.progress);
+            job.status = Status.COMPLETED;
+        }
+        catch (ImportService.InvalidFileException e) {
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+        }
+        catch (Exception e) {
+            log.error("Import job {} failed", job.id, e);
+            job.error = "Import stopped after " + job.progress.getImported() + " rows";
+            job.status = Status.FAILED;
+        }
+        finally {
+            job.completedAt = LocalDateTime.now();
+            deleteQuietly(job.file);
+        }
+    }
+
+    private ImportJobDTO toDTO(ImportJob job) {
+        return ImportJobDTO.builder()
+        .id(job.id)
+        .type(job.type)
+        .format(job.format.getExtension())
+        .fileName(job.fileName)
+        .status(job.status.name())
+        .rowsRead(job.progress.getRowsRead())
+        .imported(job.progress.getImported())
+        .failed(job.progress.getFailed())
+        .errors(job.progress.getErrors())
+        .error(job.error)
+        .createdAt(job.createdAt)
+        .completedAt(job.completedAt)
+        .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    private enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final class ImportJob {
+        private final String id;
+        private final Long profileId;
+        private final String type;
+        private final ExportService.Format format;
+        private final String fileName;
+        private final ImportService.Progress progress = new ImportService.Progress();
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Path file;
+        private volatile Status status = Status.QUEUED;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        private ImportJob(String id, Long profileId, String type, ExportService.Format format, String fileName) {
+            this.id = id;
+            this.profileId = profileId;
+            this.type = type;
+            this.format = format;
+            this.fileName = fileName;
+        }
+    }
+}
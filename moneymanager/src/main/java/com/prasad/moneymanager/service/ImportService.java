@@ -0,0 +1,411 @@
+package com.prasad.moneymanager.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import com.prasad.moneymanager.dto.ImportRowError;
+import com.prasad.moneymanager.entity.CategoryEntity;
+import com.prasad.moneymanager.entity.ExpenseEntity;
+import com.prasad.moneymanager.entity.IncomeEntity;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.CategoryRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+//Streams a CSV or XLSX file of incomes or expenses into the database. Rows are parsed one at a time
+//(SAX for XLSX), categories are resolved by name from one preloaded map, and valid rows are written in
+//JDBC batches, each batch in its own transaction together with its balance and rollup deltas.
+@Service
+@RequiredArgsConstructor
+public class ImportService {
+
+    private static final DateTimeFormatter EXPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final CategoryRepository categoryRepository;
+    private final BalanceService balanceService;
+    private final RollupService rollupService;
+    private final NameSearchIndex nameSearchIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    //The file as a whole can't be imported (missing header columns, no rows)
+    public static class InvalidFileException extends RuntimeException {
+        public InvalidFileException(String message) {
+            super(message);
+        }
+    }
+
+    //Counters read by the job while the import runs
+    public static final class Progress {
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        public long getRowsRead() {
+            return rowsRead.get();
+        }
+
+        public long getImported() {
+            return imported.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public List<ImportRowError> getErrors() {
+            synchronized (errors) {
+                return List.copyOf(errors);
+            }
+        }
+    }
+
+    //type is "income" or "expense"; format is CSV or XLSX. Rows with errors are skipped and reported
+    //in progress; an exception means the file could not be read or a batch failed to save.
+    public void importFile(Long profileId, String type, ExportService.Format format, Path file, Progress progress) throws IOException {
+        RowImporter importer = new RowImporter(profileId, type, progress);
+        switch (format) {
+            case CSV -> readCsv(file, importer);
+            case XLSX -> readXlsx(file, importer);
+            default -> throw new IllegalArgumentException("Only csv and xlsx files can be imported");
+        }
+        importer.finish();
+    }
+
+    private record ParsedRow(String name, BigDecimal amount, LocalDate date, CategoryEntity category) {
+    }
+
+    private interface RowSink {
+        void row(int rowNumber, List<String> cells);
+    }
+
+    //Maps columns by header name, validates rows and flushes them in batches
+    private final class RowImporter implements RowSink {
+
+        private final Long profileId;
+        private final String type;
+        private final Progress progress;
+        private final Map<String, CategoryEntity> categories = new HashMap<>();
+        private final List<ParsedRow> batch = new ArrayList<>();
+        private int nameColumn = -1;
+        private int amountColumn = -1;
+        private int dateColumn = -1;
+        private int categoryColumn = -1;
+        private boolean headerSeen;
+
+        private RowImporter(Long profileId, String type, Progress progress) {
+            this.profileId = profileId;
+            this.type = type;
+            this.progress = progress;
+            for (CategoryEntity category : categoryRepository.findByTypeAndProfileId(type, profileId)) {
+                categories.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        @Override
+        public void row(int rowNumber, List<String> cells) {
+            if (cells.stream().allMatch(cell -> cell == null || cell.isBlank())) {
+                return;
+            }
+            if (!headerSeen) {
+                readHeader(cells);
+                return;
+            }
+            progress.rowsRead.incrementAndGet();
+            try {
+                add(cells);
+            }
+            catch (IllegalArgumentException e) {
+                progress.failed.incrementAndGet();
+                synchronized (progress.errors) {
+                    if (progress.errors.size() < maxReportedErrors) {
+                        progress.errors.add(new ImportRowError(rowNumber, e.getMessage()));
+                    }
+                }
+            }
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void readHeader(List<String> cells) {
+            for (int i = 0; i < cells.size(); i++) {
+                String name = cells.get(i) != null ? cells.get(i).trim().toLowerCase(Locale.ROOT) : "";
+                switch (name) {
+                    case "name" -> nameColumn = i;
+                    case "amount" -> amountColumn = i;
+                    case "date" -> dateColumn = i;
+                    case "category" -> categoryColumn = i;
+                    default -> { }
+                }
+            }
+            if (nameColumn < 0 || amountColumn < 0 || categoryColumn < 0) {
+                throw new InvalidFileException("Header must have Name, Amount and Category columns");
+            }
+            headerSeen = true;
+        }
+
+        private void add(List<String> cells) {
+            String name = cell(cells, nameColumn);
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Name is required");
+            }
+            BigDecimal amount = parseAmount(cell(cells, amountColumn));
+            LocalDate date = parseDate(cell(cells, dateColumn));
+            String categoryName = cell(cells, categoryColumn);
+            CategoryEntity category = categories.get(categoryName.toLowerCase(Locale.ROOT));
+            if (category == null) {
+                throw new IllegalArgumentException("Unknown " + type + " category '" + categoryName + "'");
+            }
+            batch.add(new ParsedRow(name, amount, date, category));
+        }
+
+        //one transaction per batch: insert the rows, then apply the batch's balance and rollup deltas
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                ProfileEntity profile = entityManager.getReference(ProfileEntity.class, profileId);
+                BigDecimal total = BigDecimal.ZERO;
+                List<RollupService.RollupDelta> deltas = new ArrayList<>(batch.size());
+                for (ParsedRow row : batch) {
+                    //the category's icon stands in for the per-transaction icon the UI would pick
+                    entityManager.persist("income".equals(type)
+                        ? IncomeEntity.builder().name(row.name()).amount(row.amount()).date(row.date())
+                            .category(row.category()).profile(profile).icon(row.category().getIcon()).build()
+                        : ExpenseEntity.builder().name(row.name()).amount(row.amount()).date(row.date())
+                            .category(row.category()).profile(profile).icon(row.category().getIcon()).build());
+                    total = total.add(row.amount());
+                    deltas.add(new RollupService.RollupDelta(row.date(), row.category().getId(), row.amount(), 1));
+                }
+                entityManager.flush();
+                entityManager.clear();
+                if ("income".equals(type)) {
+                    balanceService.recordIncome(profileId, total, batch.size());
+                }
+                else {
+                    balanceService.recordExpense(profileId, total, batch.size());
+                }
+                rollupService.recordAll(profileId, type, deltas);
+                nameSearchIndex.recordBulkChange(profileId, type);
+            });
+            progress.imported.addAndGet(batch.size());
+            batch.clear();
+        }
+
+        private void finish() {
+            if (!headerSeen) {
+                throw new InvalidFileException("The file is empty");
+            }
+            flush();
+        }
+    }
+
+    private static String cell(List<String> cells, int column) {
+        if (column < 0 || column >= cells.size() || cells.get(column) == null) {
+            return "";
+        }
+        return cells.get(column).trim();
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + value + "'");
+        }
+    }
+
+    //yyyy-MM-dd, or dd-MM-yyyy as written by the Excel export; blank means today
+    private static LocalDate parseDate(String value) {
+        if (value.isEmpty()) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(value);
+        }
+        catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(value, EXPORT_DATE_FORMAT);
+            }
+            catch (DateTimeParseException ignored) {
+                throw new IllegalArgumentException("Invalid date '" + value + "', expected yyyy-MM-dd");
+            }
+        }
+    }
+
+    //RFC 4180: quoted fields may hold commas, doubled quotes and line breaks
+    private void readCsv(Path file, RowSink sink) throws IOException {
+        try (Reader reader = new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> cells = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int rowNumber = 1;
+            int c = reader.read();
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+            for (; c != -1; c = reader.read()) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        }
+                        else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    }
+                    else {
+                        field.append((char) c);
+                    }
+                }
+                else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                }
+                else if (c == ',') {
+                    cells.add(field.toString());
+                    field.setLength(0);
+                }
+                else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    cells.add(field.toString());
+                    field.setLength(0);
+                    sink.row(rowNumber++, cells);
+                    cells = new ArrayList<>();
+                    any = false;
+                }
+                else {
+                    field.append((char) c);
+                }
+            }
+            if (any) {
+                cells.add(field.toString());
+                sink.row(rowNumber, cells);
+            }
+        }
+    }
+
+    //first sheet through the event API: only the current row is ever held in memory
+    private void readXlsx(Path file, RowSink sink) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, new SheetRows(sink), new IsoDateFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+        catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not read the xlsx file", e);
+        }
+    }
+
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowSink sink;
+        private final List<String> cells = new ArrayList<>();
+
+        private SheetRows(RowSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            sink.row(rowNum + 1, new ArrayList<>(cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            //empty cells are not reported, so place each value by its column letter
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue);
+        }
+    }
+
+    //date cells come through as yyyy-MM-dd and other numbers unformatted, whatever the cell style says
+    private static final class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return NumberToTextConverter.toText(value);
+        }
+    }
+}
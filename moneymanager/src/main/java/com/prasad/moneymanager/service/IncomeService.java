@@ -1,92 +1,217 @@
 package com.prasad.moneymanager.service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hibernate.Session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.prasad.moneymanager.config.MetricsConfig;
 import com.prasad.moneymanager.dto.IncomeDTO;
+import com.prasad.moneymanager.dto.TransactionDeltaRow;
+import com.prasad.moneymanager.dto.TransactionNameRow;
+import com.prasad.moneymanager.dto.TransactionRow;
 import com.prasad.moneymanager.entity.CategoryEntity;
 import com.prasad.moneymanager.entity.IncomeEntity;
 import com.prasad.moneymanager.entity.ProfileEntity;
 import com.prasad.moneymanager.repository.CategoryRepository;
 import com.prasad.moneymanager.repository.IncomeRepository;
-import java.util.Base64;
+import com.prasad.moneymanager.repository.LedgerRepository;
+import com.prasad.moneymanager.security.AuthenticatedProfile;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class IncomeService {
 
     private final CategoryRepository categoryRepository;
     private final IncomeRepository incomeRepository;
+    private final LedgerRepository ledgerRepository;
     private final ProfileService profileService;
-    private final EmailService emailService;
+    private final BalanceService balanceService;
+    private final RollupService rollupService;
+    private final ExportJobService exportJobService;
+    private final NameSearchIndex nameSearchIndex;
+    private final EntityManager entityManager;
+
+    @Value("${transactions.bulk.max-items:1000}")
+    private int bulkMaxItems;
+
+    @Value("${transactions.bulk.batch-size:500}")
+    private int bulkBatchSize;
 
     //Adds a new expense to the database
+    @Transactional
     public IncomeDTO addIncome(IncomeDTO dto){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        ProfileEntity profile = profileService.getCurrentProfileReference();
         CategoryEntity category = categoryRepository.findById(dto.getCategoryId())
             .orElseThrow(() -> new RuntimeException("Category not found"));
         IncomeEntity newIncome = toEntity(dto, profile, category);
         incomeRepository.save(newIncome);
+        nameSearchIndex.recordAdded(profile.getId(), "income", newIncome.getId(), newIncome.getName());
+        balanceService.recordIncome(profile.getId(), newIncome.getAmount(), 1);
+        rollupService.record(profile.getId(), "income", newIncome.getDate(), category.getId(), newIncome.getAmount(), 1);
         return toDto(newIncome);
     }
 
     //Retrives all incomes for current month/based on start and end date
     public List<IncomeDTO> getCurrentMonthIncomesForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         LocalDate now = LocalDate.now();
         LocalDate startDate = now.withDayOfMonth(1);
         LocalDate endDate = now.withDayOfMonth(now.lengthOfMonth());
-        List<IncomeEntity> list = incomeRepository.findByProfileIdAndDateBetween(profile.getId(), startDate, endDate);
+        List<TransactionRow> list = incomeRepository.findByProfileIdAndDateBetween(profileId, startDate, endDate);
         return list.stream().map(this::toDto).toList();
     }
 
     //Delete income by id for current user
+    @Transactional
     public void deleteIncome(Long incomeId){
-        ProfileEntity profile = profileService.getCurrentProfile();
+        Long profileId = profileService.getCurrentProfileId();
         IncomeEntity entity = incomeRepository.findById(incomeId)
         .orElseThrow(() -> new RuntimeException("Income not found"));
 
-        if(!entity.getProfile().getId().equals(profile.getId())){
+        if(!entity.getProfile().getId().equals(profileId)){
             throw new RuntimeException("Unauthorized to delete this income");
         }
         incomeRepository.delete(entity);
+        nameSearchIndex.recordDeleted(profileId, "income", entity.getId());
+        balanceService.recordIncome(profileId, entity.getAmount() != null ? entity.getAmount().negate() : null, -1);
+        rollupService.record(profileId, "income", entity.getDate(), entity.getCategory().getId(), entity.getAmount() != null ? entity.getAmount().negate() : null, -1);
+    }
+
+    //Adds many incomes in one transaction: one IN query validates the categories and the rows go out as JDBC batches
+    @Transactional
+    public List<IncomeDTO> addIncomes(List<IncomeDTO> dtos){
+        checkBulkSize(dtos);
+        if(dtos.isEmpty()){
+            return List.of();
+        }
+        ProfileEntity profile = profileService.getCurrentProfileReference();
+        Map<Long, CategoryEntity> categories = findCategories(dtos.stream().map(IncomeDTO::getCategoryId).toList(), profile.getId());
+
+        List<IncomeEntity> entities = dtos.stream()
+            .map(dto -> toEntity(dto, profile, categories.get(dto.getCategoryId())))
+            .toList();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(bulkBatchSize);
+        incomeRepository.saveAll(entities);
+        incomeRepository.flush();
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<RollupService.RollupDelta> deltas = new ArrayList<>(entities.size());
+        List<TransactionNameRow> names = new ArrayList<>(entities.size());
+        for(IncomeEntity entity : entities){
+            total = total.add(entity.getAmount() != null ? entity.getAmount() : BigDecimal.ZERO);
+            deltas.add(new RollupService.RollupDelta(entity.getDate(), entity.getCategory().getId(), entity.getAmount(), 1));
+            names.add(new TransactionNameRow(entity.getId(), entity.getName()));
+        }
+        nameSearchIndex.recordAllAdded(profile.getId(), "income", names);
+        balanceService.recordIncome(profile.getId(), total, entities.size());
+        rollupService.recordAll(profile.getId(), "income", deltas);
+        return entities.stream().map(this::toDto).toList();
+    }
+
+    //Deletes the given incomes of the current user with a single DELETE ... WHERE id IN; ids of other users are skipped.
+    //Returns how many rows were deleted
+    @Transactional
+    public int deleteIncomes(Collection<Long> incomeIds){
+        checkBulkSize(incomeIds);
+        if(incomeIds.isEmpty()){
+            return 0;
+        }
+        Long profileId = profileService.getCurrentProfileId();
+        List<TransactionDeltaRow> rows = ledgerRepository.findDeltasForUpdate(IncomeEntity.TYPE, new HashSet<>(incomeIds), profileId);
+        if(rows.isEmpty()){
+            return 0;
+        }
+        List<Long> ids = rows.stream().map(TransactionDeltaRow::getId).toList();
+        int deleted = ledgerRepository.deleteByTypeAndIdIn(IncomeEntity.TYPE, ids, profileId);
+
+        BigDecimal total = BigDecimal.ZERO;
+        List<RollupService.RollupDelta> deltas = new ArrayList<>(rows.size());
+        for(TransactionDeltaRow row : rows){
+            BigDecimal negated = row.getAmount() != null ? row.getAmount().negate() : null;
+            total = total.add(negated != null ? negated : BigDecimal.ZERO);
+            deltas.add(new RollupService.RollupDelta(row.getDate(), row.getCategoryId(), negated, -1));
+        }
+        nameSearchIndex.recordAllDeleted(profileId, "income", ids);
+        balanceService.recordIncome(profileId, total, -rows.size());
+        rollupService.recordAll(profileId, "income", deltas);
+        return deleted;
     }
 
     //Get latest 5 incomes for current user
     public List<IncomeDTO> getLatest5IncomesForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<IncomeEntity> list = incomeRepository.findTop5ByProfileIdOrderByDateDesc(profile.getId());
+        Long profileId = profileService.getCurrentProfileId();
+        List<TransactionRow> list = incomeRepository.findTop5ByProfileIdOrderByDateDesc(profileId);
         return list.stream().map(this::toDto).toList();
     }
 
     //Get total incomes of current user
     public BigDecimal getTotalIncomeForCurrentUser(){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        BigDecimal total = incomeRepository.findTotalIncomeByProfileId(profile.getId());
-        return total != null ? total : BigDecimal.ZERO;
+        Long profileId = profileService.getCurrentProfileId();
+        return balanceService.getBalance(profileId).getTotalIncome();
     }
 
     //filter incomes
-    public List<IncomeDTO> filterIncomes(LocalDate startDate, LocalDate endDate, String Keyword, Sort sort){
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<IncomeEntity> list = incomeRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profile.getId(), startDate, endDate, Keyword, sort);
-        return list.stream().map(this::toDto).toList();
+    //one page after the given keyset position; the sort must end with id so positions are unique
+    public Window<IncomeDTO> filterIncomes(LocalDate startDate, LocalDate endDate, String Keyword, Sort sort, ScrollPosition position, int pageSize){
+        Long profileId = profileService.getCurrentProfileId();
+        //narrow the keyword through the name index when it can, otherwise let the database match it
+        Optional<Set<Long>> matches = nameSearchIndex.search(profileId, "income", Keyword);
+        if(matches.isPresent() && matches.get().isEmpty()){
+            return Window.from(List.of(), index -> position);
+        }
+        Window<TransactionRow> window = matches.isPresent()
+            ? incomeRepository.findByProfileIdAndDateBetweenAndIdIn(profileId, startDate, endDate, matches.get(), position, sort, Limit.of(pageSize))
+            : incomeRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(profileId, startDate, endDate, Keyword, position, sort, Limit.of(pageSize));
+        return window.map(this::toDto);
     }
 
     //helper methods
+    private void checkBulkSize(Collection<?> items){
+        if(items == null){
+            throw new IllegalArgumentException("Request body must be a list");
+        }
+        if(items.size() > bulkMaxItems){
+            throw new IllegalArgumentException("At most " + bulkMaxItems + " incomes per request");
+        }
+    }
+
+    //every category id must exist and belong to the profile
+    private Map<Long, CategoryEntity> findCategories(List<Long> categoryIds, Long profileId){
+        if(categoryIds.contains(null)){
+            throw new IllegalArgumentException("Every income needs a categoryId");
+        }
+        Set<Long> wanted = new HashSet<>(categoryIds);
+        Map<Long, CategoryEntity> categories = categoryRepository.findByIdInAndProfileId(wanted, profileId).stream()
+            .collect(Collectors.toMap(CategoryEntity::getId, Function.identity()));
+        wanted.removeAll(categories.keySet());
+        if(!wanted.isEmpty()){
+            throw new IllegalArgumentException("Category not found: " + wanted);
+        }
+        return categories;
+    }
+
     private IncomeEntity toEntity(IncomeDTO dto, ProfileEntity profile, CategoryEntity category){
         return IncomeEntity.builder()
         .name(dto.getName())
@@ -98,6 +223,20 @@ public class IncomeService {
         .build();
     }
 
+    private IncomeDTO toDto(TransactionRow row){
+        return IncomeDTO.builder()
+        .id(row.id())
+        .name(row.name())
+        .icon(row.icon())
+        .categoryId(row.categoryId())
+        .categoryName(row.categoryName() != null ? row.categoryName() : "N?A")
+        .amount(row.amount())
+        .date(row.date())
+        .createdAt(row.createdAt())
+        .updatedAt(row.updatedAt())
+        .build();
+    }
+
     private IncomeDTO toDto(IncomeEntity entity){
         return IncomeDTO.builder()
         .id(entity.getId())
@@ -112,63 +251,9 @@ public class IncomeService {
         .build();
     }
 
-    public ByteArrayInputStream generateIncomeExcel() throws IOException {
-
-        ProfileEntity profile = profileService.getCurrentProfile();
-        List<IncomeEntity> incomes = incomeRepository.findByProfileId(profile.getId());
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Incomes");
-
-        // Header
-        Row header = sheet.createRow(0);
-        String[] columns = {"Name", "Amount", "Date", "Category"};
-
-        for (int i = 0; i < columns.length; i++) {
-            header.createCell(i).setCellValue(columns[i]);
-        }
-
-        // Data rows
-        int rowIdx = 1;
-        for (IncomeEntity income : incomes) {
-            Row row = sheet.createRow(rowIdx++);
-            row.createCell(0).setCellValue(income.getName());
-            row.createCell(1).setCellValue(income.getAmount().doubleValue());
-            row.createCell(2).setCellValue(income.getDate().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")));
-            row.createCell(3).setCellValue(income.getCategory() != null ? income.getCategory().getName() : "");
-        }
-
-        for (int i = 0; i < columns.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        workbook.write(out);
-        workbook.close();
-
-        return new ByteArrayInputStream(out.toByteArray());
-    }
-
+    //Queues the income report; it is built on the export pool and emailed when ready
     public void emailIncomeExcelToUser() {
-
-        try {
-            ProfileEntity profile = profileService.getCurrentProfile();
-
-            ByteArrayInputStream stream = generateIncomeExcel();
-            byte[] fileBytes = stream.readAllBytes();
-
-            String base64File = Base64.getEncoder().encodeToString(fileBytes);
-
-            emailService.sendEmailWithAttachment(
-                profile.getEmail(),
-                "Your Income Report",
-                "<p>Please find attached your income report.</p>",
-                base64File,
-                "income_details.xlsx"
-            );
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to email income report", e);
-        }
+        AuthenticatedProfile profile = profileService.getAuthenticatedProfile();
+        exportJobService.submit(profile.id(), "income", ExportService.Format.XLSX, null, null, profile.email());
     }
 }
@@ -0,0 +1,253 @@
+package com.prasad.moneymanager.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.prasad.moneymanager.dto.TransactionNameRow;
+import com.prasad.moneymanager.repository.ExpenseRepository;
+import com.prasad.moneymanager.repository.IncomeRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//Per-profile trigram index over income and expense names. It answers "which ids contain this keyword"
+//without a LIKE '%kw%' scan; profiles are loaded lazily from the database and evicted least recently used.
+//Writes made here are applied to the loaded index once they commit. Each index also remembers the profile
+//data version it reflects, so a write it never saw (another instance, a category change, a reconcile)
+//shows up as a version mismatch on the next search and the profile is reloaded.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NameSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final ExpenseRepository expenseRepository;
+    private final IncomeRepository incomeRepository;
+    private final DataVersionService dataVersionService;
+
+    @Value("${search.index.max-profiles:1000}")
+    private int maxProfiles;
+
+    //matches beyond this are left to the database LIKE rather than sent as a huge IN list
+    @Value("${search.index.max-matches:1000}")
+    private int maxMatches;
+
+    private record Key(Long profileId, String type) {
+    }
+
+    private final Map<Key, ProfileIndex> profiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ProfileIndex> eldest) {
+            return size() > maxProfiles;
+        }
+    };
+
+    //type is "income" or "expense". Empty when the index can't narrow the search (keyword shorter than
+    //a trigram, profile still loading, too many matches); otherwise the ids whose name contains the keyword.
+    public Optional<Set<Long>> search(Long profileId, String type, String keyword) {
+        if (keyword == null || keyword.length() < GRAM) {
+            return Optional.empty();
+        }
+        Key key = new Key(profileId, type);
+        long version = dataVersionService.getVersion(profileId);
+        ProfileIndex index;
+        boolean load = false;
+        synchronized (profiles) {
+            index = profiles.get(key);
+            if (index == null || !index.isAt(version)) {
+                //read before the names, so a write committed during the load makes the index stale, not wrong
+                index = new ProfileIndex(version);
+                profiles.put(key, index);
+                load = true;
+            }
+        }
+        if (load) {
+            load(key, index);
+        }
+        Set<Long> matches = index.search(keyword.toLowerCase(Locale.ROOT), maxMatches);
+        return Optional.ofNullable(matches);
+    }
+
+    //applied once the surrounding transaction commits, so a rollback never reaches the index
+    public void recordAdded(Long profileId, String type, Long id, String name) {
+        afterCommit(profileId, type, index -> index.add(id, name));
+    }
+
+    public void recordDeleted(Long profileId, String type, Long id) {
+        afterCommit(profileId, type, index -> index.remove(id));
+    }
+
+    //batch forms of the above: one commit hook for the whole list
+    public void recordAllAdded(Long profileId, String type, List<TransactionNameRow> rows) {
+        afterCommit(profileId, type, index -> rows.forEach(row -> index.add(row.getId(), row.getName())));
+    }
+
+    public void recordAllDeleted(Long profileId, String type, Collection<Long> ids) {
+        afterCommit(profileId, type, index -> ids.forEach(index::remove));
+    }
+
+    //for bulk writes: drops the profile's index once the transaction commits so the next search reloads it
+    public void recordBulkChange(Long profileId, String type) {
+        runAfterCommit(() -> {
+            synchronized (profiles) {
+                profiles.remove(new Key(profileId, type));
+            }
+        });
+    }
+
+    private void afterCommit(Long profileId, String type, Consumer<ProfileIndex> change) {
+        runAfterCommit(() -> {
+            ProfileIndex index;
+            synchronized (profiles) {
+                index = profiles.get(new Key(profileId, type));
+            }
+            //profiles that aren't loaded pick the change up when they are
+            if (index != null) {
+                index.apply(change);
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void load(Key key, ProfileIndex index) {
+        try {
+            List<TransactionNameRow> rows = "income".equals(key.type())
+                ? incomeRepository.findNamesByProfileId(key.profileId())
+                : expenseRepository.findNamesByProfileId(key.profileId());
+            index.loaded(rows);
+        } catch (RuntimeException e) {
+            log.warn("Could not load name index for profile {} {}", key.profileId(), key.type(), e);
+            synchronized (profiles) {
+                profiles.remove(key, index);
+            }
+        }
+    }
+
+    private static final class ProfileIndex {
+
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final Map<Long, String> names = new HashMap<>();
+        //changes committed while the snapshot loads; replayed on top of it. null once loaded
+        private List<Consumer<ProfileIndex>> pending = new ArrayList<>();
+        //data version read before the load, plus one per change applied: every write transaction that
+        //reaches the index bumps the version exactly once
+        private long version;
+
+        ProfileIndex(long version) {
+            this.version = version;
+        }
+
+        synchronized boolean isAt(long current) {
+            return version == current;
+        }
+
+        synchronized void loaded(List<TransactionNameRow> rows) {
+            for (TransactionNameRow row : rows) {
+                add(row.getId(), row.getName());
+            }
+            List<Consumer<ProfileIndex>> changes = pending;
+            pending = null;
+            changes.forEach(change -> change.accept(this));
+        }
+
+        synchronized void apply(Consumer<ProfileIndex> change) {
+            version++;
+            if (pending != null) {
+                pending.add(change);
+            } else {
+                change.accept(this);
+            }
+        }
+
+        //called with the monitor held
+        void add(Long id, String name) {
+            if (id == null || name == null) {
+                return;
+            }
+            remove(id);
+            String lower = name.toLowerCase(Locale.ROOT);
+            names.put(id, lower);
+            for (String gram : grams(lower)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        }
+
+        void remove(Long id) {
+            String lower = names.remove(id);
+            if (lower == null) {
+                return;
+            }
+            for (String gram : grams(lower)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+
+        synchronized Set<Long> search(String keyword, int maxMatches) {
+            if (pending != null) {
+                return null;
+            }
+            //intersect from the rarest trigram, then confirm the full keyword on the stored name
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(keyword)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            Set<Long> matches = new HashSet<>();
+            for (Long id : lists.get(0)) {
+                boolean inAll = true;
+                for (int i = 1; i < lists.size() && inAll; i++) {
+                    inAll = lists.get(i).contains(id);
+                }
+                if (inAll && names.get(id).contains(keyword)) {
+                    matches.add(id);
+                    if (matches.size() > maxMatches) {
+                        return null;
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private static Set<String> grams(String text) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+    }
+}
@@ -1,84 +1,135 @@
 package com.prasad.moneymanager.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.prasad.moneymanager.dto.ExpenseDTO;
+import com.prasad.moneymanager.dto.DailyExpenseRow;
+import com.prasad.moneymanager.dto.EmailMessage;
 import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.ExpenseRepository;
 import com.prasad.moneymanager.repository.ProfileRepository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    //rows of the daily summary read per query
+    private static final int CHUNK_SIZE = 500;
+
     private final ProfileRepository profileRepository;
     private final EmailService emailService;
-    private final ExpenseService expenseService;
+    private final ExpenseRepository expenseRepository;
 
     @Value("${money.manager.frontend.url}")
     private String frontendUrl;
 
+    //the reminders are handed to the email pipeline as one Flux, pulled only as fast as it can queue them
     @Scheduled(cron = "0 0 22 * * *",zone = "IST")
     public void sendDailyIncomeExpenseReminder(){
         log.info("Job started : sendDailyIncomeExpenseReminder()");
-        List<ProfileEntity> profiles = profileRepository.findAll();
-        for(ProfileEntity profile : profiles){
-            String body = "Hi " + profile.getFullName() + ",<br><br>"
-                + "This is a friendly reminder to add your income and expenses for today in Money Manager.<br><br>"
-                + "<a href=\"" + frontendUrl + "\" style=\"display:inline-block;padding:10px 20px;"
-                + "background-color:#4CAF50;color:#fff;text-decoration:none;"
-                + "border-radius:5px;font-weight:bold;\">Go to Money Manager</a>"
-                + "<br><br>Best regards,<br>Money Manager Team";
+        Long queued = emailService.sendAll(Flux.fromIterable(profileRepository.findAll()).map(this::reminderFor)).block();
+        log.info("Job completed : sendDailyIncomeExpenseReminder() queued={}", queued);
+    }
 
-            emailService.sendEmail(profile.getEmail(), "Daily reminder : Add your income and expenses", body);
-        }
-        log.info("Job completed : sendDailyIncomeExpenseReminder()");
+    private EmailMessage reminderFor(ProfileEntity profile){
+        String body = "Hi " + profile.getFullName() + ",<br><br>"
+            + "This is a friendly reminder to add your income and expenses for today in Money Manager.<br><br>"
+            + "<a href=\"" + frontendUrl + "\" style=\"display:inline-block;padding:10px 20px;"
+            + "background-color:#4CAF50;color:#fff;text-decoration:none;"
+            + "border-radius:5px;font-weight:bold;\">Go to Money Manager</a>"
+            + "<br><br>Best regards,<br>Money Manager Team";
+        return EmailMessage.builder()
+            .to(profile.getEmail())
+            .subject("Daily reminder : Add your income and expenses")
+            .htmlContent(body)
+            .build();
     }
 
+    //Today's expenses ordered by profile, read in keyset chunks; each profile's rows are grouped as they
+    //go past, so the job does work per expense rather than a query per user. The summaries a chunk completes
+    //are queued before the next chunk is read, so no connection is held while the email queue is full
     @Scheduled(cron = "0 0 23 * * *",zone = "IST")
     public void sendDailyExpenseSummary(){
         log.info("Job started : sendDailyExpenseSummary()");
-        List<ProfileEntity> profiles = profileRepository.findAll();
-        for(ProfileEntity profile : profiles){
-            List<ExpenseDTO> todaysExpenses = expenseService.getExpensesForUserOnDate(profile.getId(), LocalDate.now());
-            if(!todaysExpenses.isEmpty()){
-                StringBuilder table = new StringBuilder();
-                table.append("<table style='border-collapse:collapse;width:100%;'>");
-                table.append("<tr style='background-color:#f2f2f2;'>"
-                    + "<th style='border:1px solid #ddd;padding:8px;'>S.No</th>"
-                    + "<th style='border:1px solid #ddd;padding:8px;'>Name</th>"
-                    + "<th style='border:1px solid #ddd;padding:8px;'>Amount</th>"
-                    + "<th style='border:1px solid #ddd;padding:8px;'>Category</th>"
-                    + "</tr>");
-                
-                int i = 1;
-                for (ExpenseDTO expense : todaysExpenses) {
-                    table.append("<tr>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(i++).append("</td>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getName()).append("</td>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getAmount()).append("</td>");
-                    table.append("<td style='border:1px solid #ddd;padding:8px;'>")
-                        .append(expense.getCategoryId() != null ? expense.getCategoryName() : "N/A")
-                        .append("</td>");
-                    table.append("</tr>");
+        LocalDate today = LocalDate.now();
+        int summaries = 0;
+        long queued = 0;
+        List<DailyExpenseRow> current = new ArrayList<>();
+        Long afterProfileId = Long.MIN_VALUE;
+        Long afterId = Long.MIN_VALUE;
+        List<DailyExpenseRow> chunk;
+        do{
+            chunk = expenseRepository.findDailyExpenseRows(today, afterProfileId, afterId, Limit.of(CHUNK_SIZE));
+            List<EmailMessage> messages = new ArrayList<>();
+            for(DailyExpenseRow row : chunk){
+                if(!current.isEmpty() && !current.get(0).getProfileId().equals(row.getProfileId())){
+                    messages.add(expenseSummaryFor(current));
+                    current.clear();
                 }
-                table.append("</table>");
-                String body ="Hi " + profile.getFullName() + ",<br><br>" +
-                    "Here is a summary of your expenses for today:<br><br>" +
-                    table +
-                    "<br><br>Best regards,<br>Money Manager Team";
-                
-                emailService.sendEmail(profile.getEmail(), "Your daily expense summary", body);
+                current.add(row);
             }
+            //the last profile of a full chunk may go on in the next one
+            if(chunk.size() < CHUNK_SIZE && !current.isEmpty()){
+                messages.add(expenseSummaryFor(current));
+            }
+            if(!chunk.isEmpty()){
+                DailyExpenseRow last = chunk.get(chunk.size() - 1);
+                afterProfileId = last.getProfileId();
+                afterId = last.getId();
+            }
+            summaries += messages.size();
+            queued += emailService.sendAll(Flux.fromIterable(messages)).block();
+        }
+        while(chunk.size() == CHUNK_SIZE);
+        log.info("Job completed : sendDailyExpenseSummary() summaries={} queued={}", summaries, queued);
+    }
+
+    private EmailMessage expenseSummaryFor(List<DailyExpenseRow> todaysExpenses){
+        return EmailMessage.builder()
+            .to(todaysExpenses.get(0).getEmail())
+            .subject("Your daily expense summary")
+            .htmlContent(buildExpenseSummaryHtml(todaysExpenses))
+            .build();
+    }
+
+    //package-private for the benchmarks module
+    String buildExpenseSummaryHtml(List<DailyExpenseRow> todaysExpenses){
+        DailyExpenseRow owner = todaysExpenses.get(0);
+        StringBuilder table = new StringBuilder(512 + todaysExpenses.size() * 256);
+        table.append("<table style='border-collapse:collapse;width:100%;'>");
+        table.append("<tr style='background-color:#f2f2f2;'>"
+            + "<th style='border:1px solid #ddd;padding:8px;'>S.No</th>"
+            + "<th style='border:1px solid #ddd;padding:8px;'>Name</th>"
+            + "<th style='border:1px solid #ddd;padding:8px;'>Amount</th>"
+            + "<th style='border:1px solid #ddd;padding:8px;'>Category</th>"
+            + "</tr>");
+
+        int i = 1;
+        for (DailyExpenseRow expense : todaysExpenses) {
+            table.append("<tr>");
+            table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(i++).append("</td>");
+            table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getName()).append("</td>");
+            table.append("<td style='border:1px solid #ddd;padding:8px;'>").append(expense.getAmount()).append("</td>");
+            table.append("<td style='border:1px solid #ddd;padding:8px;'>")
+                .append(expense.getCategoryName() != null ? expense.getCategoryName() : "N/A")
+                .append("</td>");
+            table.append("</tr>");
         }
-        log.info("Job completed : sendDailyExpenseSummary()");
+        table.append("</table>");
+        return "Hi " + owner.getFullName() + ",<br><br>" +
+            "Here is a summary of your expenses for today:<br><br>" +
+            table +
+            "<br><br>Best regards,<br>Money Manager Team";
     }
 }
@@ -8,20 +8,24 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.prasad.moneymanager.config.MetricsConfig;
 import com.prasad.moneymanager.dto.AuthDTO;
 import com.prasad.moneymanager.dto.ProfileDTO;
 import com.prasad.moneymanager.entity.ProfileEntity;
 import com.prasad.moneymanager.repository.ProfileRepository;
+import com.prasad.moneymanager.security.AuthenticatedProfile;
+import com.prasad.moneymanager.security.TokenVersionCache;
 import com.prasad.moneymanager.util.JwtUtil;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class ProfileService {
 
@@ -30,6 +34,7 @@ public class ProfileService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final TokenVersionCache tokenVersionCache;
 
     @Value("${app.activation.url}")
     public String activationURL;
@@ -86,10 +91,34 @@ public class ProfileService {
         .orElse(false);
     }
 
+    //Loads the full profile row; hot paths should use getCurrentProfileId()/getCurrentProfileReference() instead
     public ProfileEntity getCurrentProfile(){
+        AuthenticatedProfile principal = getAuthenticatedProfile();
+        return profileRepository.findById(principal.id())
+        .orElseThrow(() -> new UsernameNotFoundException("Profile not found with email : " + principal.email()));
+    }
+
+    //Principal built from the verified JWT claims; no database access
+    public AuthenticatedProfile getAuthenticatedProfile(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return profileRepository.findByEmail(authentication.getName())
-        .orElseThrow(() -> new UsernameNotFoundException("Profile not found with email : " + authentication.getName()));
+        if(authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedProfile principal)){
+            throw new UsernameNotFoundException("No authenticated profile");
+        }
+        return principal;
+    }
+
+    public Long getCurrentProfileId(){
+        return getAuthenticatedProfile().id();
+    }
+
+    //Uninitialized proxy for use as a foreign key; does not hit the database
+    public ProfileEntity getCurrentProfileReference(){
+        return profileRepository.getReferenceById(getCurrentProfileId());
+    }
+
+    //Invalidates every token issued so far for the current profile
+    public void revokeTokensForCurrentUser(){
+        tokenVersionCache.revoke(getCurrentProfileId());
     }
 
     public ProfileDTO getPublicProfile(String email){
@@ -121,14 +150,14 @@ public class ProfileService {
                 )
             );
 
-            var userDetails = (UserDetails)
-                    authentication.getPrincipal();
+            ProfileEntity profile = profileRepository.findByEmail(authentication.getName())
+            .orElseThrow(() -> new UsernameNotFoundException("Profile not found with email : " + authentication.getName()));
 
-            String token = jwtUtil.generateToken(userDetails);
+            String token = jwtUtil.generateToken(profile);
 
             return Map.of(
                 "token", token,
-                "user", getPublicProfile(authDTO.getEmail())
+                "user", toDTO(profile)
             );
         }
         catch(Exception e){
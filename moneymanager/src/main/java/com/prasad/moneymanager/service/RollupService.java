@@ -0,0 +1,114 @@
+package com.prasad.moneymanager.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.prasad.moneymanager.entity.TransactionRollupEntity;
+import com.prasad.moneymanager.entity.TransactionRollupKey;
+import com.prasad.moneymanager.repository.ProfileRepository;
+import com.prasad.moneymanager.repository.TransactionRollupRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+
+    private final TransactionRollupRepository rollupRepository;
+    private final ProfileRepository profileRepository;
+    private final BalanceService balanceService;
+    private final TransactionTemplate transactionTemplate;
+
+    //start once with --analytics.rollups.rebuild-on-startup=true to recompute every profile's rollups
+    @Value("${analytics.rollups.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    //Applies an income or expense delta to its day and month rollups; must run in the same
+    //transaction as the insert/delete. type is "income" or "expense"
+    @Transactional
+    public void record(Long profileId, String type, LocalDate date, Long categoryId, BigDecimal amount, long count){
+        if(date == null){
+            return;
+        }
+        BigDecimal delta = amount != null ? amount : BigDecimal.ZERO;
+        add(profileId, type, TransactionRollupEntity.DAY, dayPeriod(date), categoryId, delta, count);
+        add(profileId, type, TransactionRollupEntity.MONTH, monthPeriod(date), categoryId, delta, count);
+    }
+
+    //Applies many deltas at once with one update per distinct day/month and category,
+    //for bulk writes; must run in the same transaction as the inserts/deletes
+    @Transactional
+    public void recordAll(Long profileId, String type, Collection<RollupDelta> deltas){
+        Map<TransactionRollupKey, RollupDelta> totals = new HashMap<>();
+        for(RollupDelta delta : deltas){
+            if(delta.date() == null){
+                continue;
+            }
+            RollupDelta value = new RollupDelta(delta.date(), delta.categoryId(), delta.amount() != null ? delta.amount() : BigDecimal.ZERO, delta.count());
+            for(TransactionRollupKey key : List.of(
+                    new TransactionRollupKey(profileId, type, TransactionRollupEntity.DAY, dayPeriod(delta.date()), delta.categoryId()),
+                    new TransactionRollupKey(profileId, type, TransactionRollupEntity.MONTH, monthPeriod(delta.date()), delta.categoryId()))){
+                totals.merge(key, value, (a, b) -> new RollupDelta(a.date(), a.categoryId(), a.amount().add(b.amount()), a.count() + b.count()));
+            }
+        }
+        totals.forEach((key, total) -> add(profileId, type, key.getGranularity(), key.getPeriod(), key.getCategoryId(), total.amount(), total.count()));
+    }
+
+    //Recomputes one profile's rollups from the ledger. rebuildBalance locks the profile's balance row, which
+    //every income/expense write updates before it touches the rollups, so no delta can land between the
+    //delete and the insert
+    @Transactional
+    public int rebuild(Long profileId){
+        balanceService.rebuildBalance(profileId);
+        rollupRepository.deleteForProfile(profileId);
+        return rollupRepository.rebuildMonths(profileId)
+            + rollupRepository.rebuildDays(profileId);
+    }
+
+    //one profile per transaction, so traffic served meanwhile only ever waits on one profile's rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup(){
+        if(rebuildOnStartup){
+            log.info("Rebuilding transaction rollups");
+            List<Long> profileIds = profileRepository.findAllIds();
+            int rows = 0;
+            for(Long profileId : profileIds){
+                rows += transactionTemplate.execute(status -> rebuild(profileId));
+            }
+            log.info("Rebuilt transaction rollups profiles={} rows={}", profileIds.size(), rows);
+        }
+    }
+
+    //one transaction's contribution: amount and count are negated for deletes
+    public record RollupDelta(LocalDate date, Long categoryId, BigDecimal amount, long count) {
+    }
+
+    public static int dayPeriod(LocalDate date){
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    public static int monthPeriod(LocalDate date){
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    //update first; only the first transaction of a period/category pays for the insert
+    private void add(Long profileId, String type, String granularity, int period, Long categoryId, BigDecimal amount, long count){
+        if(rollupRepository.add(profileId, type, granularity, period, categoryId, amount, count) == 0){
+            rollupRepository.insertMissing(profileId, type, granularity, period, categoryId);
+            rollupRepository.add(profileId, type, granularity, period, categoryId, amount, count);
+        }
+    }
+}
@@ -1,35 +1,74 @@
 package com.prasad.moneymanager.util;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.security.AuthenticatedProfile;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 import javax.crypto.SecretKey;
 
 @Component
 public class JwtUtil {
 
+    private static final String PROFILE_ID_CLAIM = "pid";
+    private static final String ACTIVE_CLAIM = "active";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret.key}")
     private String SECRET_KEY;
 
-    private SecretKey getSignInKey() {
+    @Value("${jwt.verified.cache.size:10000}")
+    private int verifiedCacheSize;
+
+    //built once; both are immutable and thread-safe
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+
+    //SHA-256 digest of an already verified token -> its principal; entries expire with the token.
+    //Caffeine reads take no lock, so concurrent requests (and virtual threads) don't queue on the cache
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
         byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parser()
+            .verifyWith(signInKey)
+            .build();
+        verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(verifiedCacheSize)
+            .expireAfter(Expiry.<String, VerifiedToken>creating((digest, verified) ->
+                Duration.ofMillis(Math.max(verified.expiresAt() - System.currentTimeMillis(), 0))))
+            .build();
     }
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(ProfileEntity profile) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(PROFILE_ID_CLAIM, profile.getId());
+        claims.put(ACTIVE_CLAIM, Boolean.TRUE.equals(profile.getIsActive()));
+        claims.put(TOKEN_VERSION_CLAIM, profile.getTokenVersion() != null ? profile.getTokenVersion() : 0);
+        return createToken(claims, profile.getEmail());
     }
 
     private String createToken(Map<String, Object> claims, String email) {
@@ -38,16 +77,14 @@ public class JwtUtil {
             .subject(email)
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
-            .signWith(getSignInKey())
+            .signWith(signInKey)
             .compact();
     }
 
     private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-        .verifyWith(getSignInKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+        return jwtParser
+            .parseSignedClaims(token)
+            .getPayload();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -63,12 +100,45 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    //Verifies the token (signature and expiry) and builds the principal from its claims;
+    //returns null for tokens issued before the profile claims were added.
+    //Tokens seen before are answered from the verified-token cache until they expire.
+    public AuthenticatedProfile extractProfile(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        //the expiry check guards the moment between exp passing and Caffeine evicting the entry
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.profile();
+        }
+
+        Claims claims = extractAllClaims(token);
+        Long profileId = claims.get(PROFILE_ID_CLAIM, Long.class);
+        if (profileId == null) {
+            return null;
+        }
+        Boolean active = claims.get(ACTIVE_CLAIM, Boolean.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        AuthenticatedProfile profile = new AuthenticatedProfile(
+            profileId,
+            claims.getSubject(),
+            Boolean.TRUE.equals(active),
+            tokenVersion != null ? tokenVersion : 0
+        );
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, new VerifiedToken(profile, claims.getExpiration().getTime()));
+        }
+        return profile;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String email = extractEmail(token);
-        return (email.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    private record VerifiedToken(AuthenticatedProfile profile, long expiresAt) {
     }
 }
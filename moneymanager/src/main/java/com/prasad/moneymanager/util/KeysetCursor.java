@@ -0,0 +1,67 @@
+package com.prasad.moneymanager.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+//Opaque cursor for the filter endpoint: the sort it was issued for plus the (sort value, id) of the last row
+public final class KeysetCursor {
+
+    public static final Set<String> SORT_FIELDS = Set.of("date", "amount", "name");
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String sortField, Sort.Direction direction, ScrollPosition position) {
+        Map<String, ?> keys = ((KeysetScrollPosition) position).getKeys();
+        Object value = keys.get(sortField);
+        //sortField|direction|id|=value - value last so it may contain the separator, empty when null
+        String raw = sortField + "|" + direction.name() + "|" + keys.get("id") + "|" + (value != null ? "=" + value : "");
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //throws IllegalArgumentException when the cursor is malformed or was issued for another sort
+    public static ScrollPosition decode(String cursor, String sortField, Sort.Direction direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length != 4 || !parts[0].equals(sortField) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortField, parseValue(sortField, parts[3]));
+        keys.put("id", Long.valueOf(parts[2]));
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object parseValue(String sortField, String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (!value.startsWith("=")) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String text = value.substring(1);
+        try {
+            return switch (sortField) {
+                case "date" -> LocalDate.parse(text);
+                case "amount" -> new BigDecimal(text);
+                default -> text;
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
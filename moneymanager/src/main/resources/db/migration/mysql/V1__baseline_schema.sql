@@ -0,0 +1,58 @@
+-- Schema as it was last generated by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE tbl_profiles (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    full_name VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255),
+    profile_image_url VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    is_active BIT,
+    activation_token VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_profiles_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE tbl_categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    type VARCHAR(255),
+    icon VARCHAR(255),
+    profile_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_categories_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE tbl_expense (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    icon VARCHAR(255),
+    date DATE,
+    amount DECIMAL(38, 2),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    category_id BIGINT NOT NULL,
+    profile_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_expense_category FOREIGN KEY (category_id) REFERENCES tbl_categories (id),
+    CONSTRAINT fk_expense_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE tbl_incomes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    icon VARCHAR(255),
+    date DATE,
+    amount DECIMAL(38, 2),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    category_id BIGINT NOT NULL,
+    profile_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_incomes_category FOREIGN KEY (category_id) REFERENCES tbl_categories (id),
+    CONSTRAINT fk_incomes_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,20 @@
+-- Running totals per profile and the JWT revocation counter.
+-- ddl-auto=update may already have created them; MySQL has no
+-- ADD COLUMN IF NOT EXISTS, so the column is added through a check.
+
+CREATE TABLE IF NOT EXISTS tbl_profile_balances (
+    profile_id BIGINT NOT NULL,
+    total_income DECIMAL(38, 2) NOT NULL,
+    total_expense DECIMAL(38, 2) NOT NULL,
+    income_count BIGINT NOT NULL,
+    expense_count BIGINT NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (profile_id)
+) ENGINE = InnoDB;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE tbl_profiles ADD COLUMN token_version INTEGER', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'tbl_profiles' AND column_name = 'token_version');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
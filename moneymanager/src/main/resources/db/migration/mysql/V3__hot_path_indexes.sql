@@ -0,0 +1,30 @@
+-- Indexes behind the repository lookups on the request and job paths.
+-- InnoDB already indexes the foreign key columns on their own; these
+-- replace them as the leftmost prefix where they start with profile_id.
+
+-- ProfileRepository.findByActivationToken
+CREATE INDEX idx_profiles_activation_token ON tbl_profiles (activation_token);
+
+-- CategoryRepository.existsByNameAndProfileId, findByProfileId
+CREATE INDEX idx_categories_profile_name ON tbl_categories (profile_id, name);
+-- CategoryRepository.findByTypeAndProfileId
+CREATE INDEX idx_categories_profile_type ON tbl_categories (profile_id, type);
+
+-- per-profile date ranges, recent lists, exports and keyset filter pages;
+-- ddl-auto=update may have created these two from the entity mappings
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_expense_profile_date_id ON tbl_expense (profile_id, date, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'tbl_expense' AND index_name = 'idx_expense_profile_date_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_income_profile_date_id ON tbl_incomes (profile_id, date, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'tbl_incomes' AND index_name = 'idx_income_profile_date_id');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- ExpenseRepository.streamDailyExpenseRows (all profiles, one day)
+CREATE INDEX idx_expense_date_profile ON tbl_expense (date, profile_id, id);
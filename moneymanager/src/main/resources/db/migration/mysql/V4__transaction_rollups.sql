@@ -0,0 +1,33 @@
+-- Per-category day and month totals of incomes and expenses, backfilled from the existing rows.
+-- period is yyyyMMdd for days and yyyyMM for months.
+
+CREATE TABLE tbl_transaction_rollups (
+    profile_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    granularity VARCHAR(255) NOT NULL,
+    period INTEGER NOT NULL,
+    category_id BIGINT NOT NULL,
+    total_amount DECIMAL(38, 2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (profile_id, type, granularity, period, category_id)
+) ENGINE = InnoDB;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'income', 'month', YEAR(date) * 100 + MONTH(date), category_id, COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_incomes WHERE date IS NOT NULL
+GROUP BY profile_id, YEAR(date) * 100 + MONTH(date), category_id;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'income', 'day', YEAR(date) * 10000 + MONTH(date) * 100 + DAY(date), category_id, COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_incomes WHERE date IS NOT NULL
+GROUP BY profile_id, YEAR(date) * 10000 + MONTH(date) * 100 + DAY(date), category_id;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'expense', 'month', YEAR(date) * 100 + MONTH(date), category_id, COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_expense WHERE date IS NOT NULL
+GROUP BY profile_id, YEAR(date) * 100 + MONTH(date), category_id;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'expense', 'day', YEAR(date) * 10000 + MONTH(date) * 100 + DAY(date), category_id, COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_expense WHERE date IS NOT NULL
+GROUP BY profile_id, YEAR(date) * 10000 + MONTH(date) * 100 + DAY(date), category_id;
@@ -0,0 +1,9 @@
+-- Pooled id generators for tbl_expense and tbl_incomes (allocationSize 50) so inserts can be batched.
+-- MySQL has no sequences; hibernate keeps the next value in a one-row table instead.
+-- Hibernate hands out the 50 ids up to each value it draws, so start past the current ids.
+
+CREATE TABLE tbl_expense_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO tbl_expense_seq SELECT COALESCE(MAX(id), 0) + 100 FROM tbl_expense;
+
+CREATE TABLE tbl_incomes_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO tbl_incomes_seq SELECT COALESCE(MAX(id), 0) + 100 FROM tbl_incomes;
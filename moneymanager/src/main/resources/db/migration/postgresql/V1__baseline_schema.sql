@@ -0,0 +1,54 @@
+-- Schema as it was last generated by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE tbl_profiles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255),
+    profile_image_url VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    is_active BOOLEAN,
+    activation_token VARCHAR(255),
+    CONSTRAINT uk_profiles_email UNIQUE (email)
+);
+
+CREATE TABLE tbl_categories (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    type VARCHAR(255),
+    icon VARCHAR(255),
+    profile_id BIGINT NOT NULL,
+    CONSTRAINT fk_categories_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+);
+
+CREATE TABLE tbl_expense (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    icon VARCHAR(255),
+    date DATE,
+    amount NUMERIC(38, 2),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    category_id BIGINT NOT NULL,
+    profile_id BIGINT NOT NULL,
+    CONSTRAINT fk_expense_category FOREIGN KEY (category_id) REFERENCES tbl_categories (id),
+    CONSTRAINT fk_expense_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+);
+
+CREATE TABLE tbl_incomes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    icon VARCHAR(255),
+    date DATE,
+    amount NUMERIC(38, 2),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    category_id BIGINT NOT NULL,
+    profile_id BIGINT NOT NULL,
+    CONSTRAINT fk_incomes_category FOREIGN KEY (category_id) REFERENCES tbl_categories (id),
+    CONSTRAINT fk_incomes_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+);
@@ -0,0 +1,13 @@
+-- Running totals per profile and the JWT revocation counter.
+-- IF NOT EXISTS because ddl-auto=update may already have created them.
+
+CREATE TABLE IF NOT EXISTS tbl_profile_balances (
+    profile_id BIGINT PRIMARY KEY,
+    total_income NUMERIC(38, 2) NOT NULL,
+    total_expense NUMERIC(38, 2) NOT NULL,
+    income_count BIGINT NOT NULL,
+    expense_count BIGINT NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+ALTER TABLE tbl_profiles ADD COLUMN IF NOT EXISTS token_version INTEGER;
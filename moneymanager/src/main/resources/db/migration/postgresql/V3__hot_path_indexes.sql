@@ -0,0 +1,16 @@
+-- Indexes behind the repository lookups on the request and job paths.
+
+-- ProfileRepository.findByActivationToken
+CREATE INDEX IF NOT EXISTS idx_profiles_activation_token ON tbl_profiles (activation_token);
+
+-- CategoryRepository.existsByNameAndProfileId, findByProfileId
+CREATE INDEX IF NOT EXISTS idx_categories_profile_name ON tbl_categories (profile_id, name);
+-- CategoryRepository.findByTypeAndProfileId
+CREATE INDEX IF NOT EXISTS idx_categories_profile_type ON tbl_categories (profile_id, type);
+
+-- per-profile date ranges, recent lists, exports and keyset filter pages
+CREATE INDEX IF NOT EXISTS idx_expense_profile_date_id ON tbl_expense (profile_id, date, id);
+CREATE INDEX IF NOT EXISTS idx_income_profile_date_id ON tbl_incomes (profile_id, date, id);
+
+-- ExpenseRepository.streamDailyExpenseRows (all profiles, one day)
+CREATE INDEX IF NOT EXISTS idx_expense_date_profile ON tbl_expense (date, profile_id, id);
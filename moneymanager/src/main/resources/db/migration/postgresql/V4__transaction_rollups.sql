@@ -0,0 +1,37 @@
+-- Per-category day and month totals of incomes and expenses, backfilled from the existing rows.
+-- period is yyyyMMdd for days and yyyyMM for months.
+
+CREATE TABLE tbl_transaction_rollups (
+    profile_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    granularity VARCHAR(255) NOT NULL,
+    period INTEGER NOT NULL,
+    category_id BIGINT NOT NULL,
+    total_amount NUMERIC(38, 2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (profile_id, type, granularity, period, category_id)
+);
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'income', 'month', CAST(EXTRACT(YEAR FROM date) * 100 + EXTRACT(MONTH FROM date) AS INTEGER), category_id,
+    COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_incomes WHERE date IS NOT NULL
+GROUP BY profile_id, CAST(EXTRACT(YEAR FROM date) * 100 + EXTRACT(MONTH FROM date) AS INTEGER), category_id;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'income', 'day', CAST(TO_CHAR(date, 'YYYYMMDD') AS INTEGER), category_id,
+    COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_incomes WHERE date IS NOT NULL
+GROUP BY profile_id, CAST(TO_CHAR(date, 'YYYYMMDD') AS INTEGER), category_id;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'expense', 'month', CAST(EXTRACT(YEAR FROM date) * 100 + EXTRACT(MONTH FROM date) AS INTEGER), category_id,
+    COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_expense WHERE date IS NOT NULL
+GROUP BY profile_id, CAST(EXTRACT(YEAR FROM date) * 100 + EXTRACT(MONTH FROM date) AS INTEGER), category_id;
+
+INSERT INTO tbl_transaction_rollups
+SELECT profile_id, 'expense', 'day', CAST(TO_CHAR(date, 'YYYYMMDD') AS INTEGER), category_id,
+    COALESCE(SUM(amount), 0), COUNT(*)
+FROM tbl_expense WHERE date IS NOT NULL
+GROUP BY profile_id, CAST(TO_CHAR(date, 'YYYYMMDD') AS INTEGER), category_id;
@@ -0,0 +1,8 @@
+-- Pooled id sequences for tbl_expense and tbl_incomes (allocationSize 50) so inserts can be batched.
+-- Hibernate hands out the 50 ids up to each value it draws, so start past the current ids.
+
+CREATE SEQUENCE IF NOT EXISTS tbl_expense_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tbl_expense_seq', COALESCE(MAX(id), 0) + 50) FROM tbl_expense;
+
+CREATE SEQUENCE IF NOT EXISTS tbl_incomes_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tbl_incomes_seq', COALESCE(MAX(id), 0) + 50) FROM tbl_incomes;
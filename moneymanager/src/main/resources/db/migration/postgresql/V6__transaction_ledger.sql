@@ -0,0 +1,42 @@
+-- Incomes and expenses move into one ledger table. Ids are kept as they are; the two tables numbered
+-- their rows independently, so the key is (type, id). New ids come from one shared sequence.
+
+CREATE TABLE tbl_transactions (
+    type VARCHAR(16) NOT NULL,
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    icon VARCHAR(255),
+    date DATE,
+    amount NUMERIC(38, 2),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    category_id BIGINT NOT NULL,
+    profile_id BIGINT NOT NULL,
+    PRIMARY KEY (type, id),
+    CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES tbl_categories (id),
+    CONSTRAINT fk_transactions_profile FOREIGN KEY (profile_id) REFERENCES tbl_profiles (id)
+);
+
+INSERT INTO tbl_transactions (type, id, name, icon, date, amount, created_at, updated_at, category_id, profile_id)
+SELECT 'income', id, name, icon, date, amount, created_at, updated_at, category_id, profile_id FROM tbl_incomes;
+
+INSERT INTO tbl_transactions (type, id, name, icon, date, amount, created_at, updated_at, category_id, profile_id)
+SELECT 'expense', id, name, icon, date, amount, created_at, updated_at, category_id, profile_id FROM tbl_expense;
+
+-- per-type date ranges, recent lists, exports and keyset filter pages
+CREATE INDEX idx_transactions_profile_type_date_id ON tbl_transactions (profile_id, type, date, id);
+-- both types of a profile in date order (recent activity, balance totals)
+CREATE INDEX idx_transactions_profile_date ON tbl_transactions (profile_id, date, created_at);
+-- ExpenseRepository.streamDailyExpenseRows (all profiles, one day)
+CREATE INDEX idx_transactions_date_type_profile ON tbl_transactions (date, type, profile_id, id);
+
+-- Hibernate hands out the 50 ids up to each value it draws, so start past the ids of both tables
+CREATE SEQUENCE tbl_transactions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('tbl_transactions_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) FROM tbl_incomes),
+    (SELECT COALESCE(MAX(id), 0) FROM tbl_expense)) + 50);
+
+DROP TABLE tbl_incomes;
+DROP TABLE tbl_expense;
+DROP SEQUENCE tbl_incomes_seq;
+DROP SEQUENCE tbl_expense_seq;
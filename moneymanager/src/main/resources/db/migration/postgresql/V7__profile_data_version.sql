@@ -0,0 +1,5 @@
+-- Per-profile data version behind the ETags of the main GET endpoints; bumped with every change to a
+-- profile's transactions or categories. Existing rows start at 1 because a profile without a balance
+-- row reports version 0.
+
+ALTER TABLE tbl_profile_balances ADD COLUMN data_version BIGINT NOT NULL DEFAULT 1;
@@ -0,0 +1,108 @@
+package com.prasad.moneymanager.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.ProfileRepository;
+import com.prasad.moneymanager.util.JwtUtil;
+
+//GET /excel/download/{type} end to end: the body is a StreamingResponseBody written on an async thread, so
+//the request has to start async processing and the async re-dispatch has to get through the security chain
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportControllerTest {
+
+    private static final int TRANSACTIONS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authorization;
+
+    @BeforeAll
+    void seed() throws Exception {
+        ProfileEntity profile = profileRepository.save(ProfileEntity.builder()
+            .fullName("Export").email("export@moneymanager.test").password("unused").isActive(true).build());
+        authorization = "Bearer " + jwtUtil.generateToken(profile);
+        for (String type : List.of("income", "expense")) {
+            long categoryId = objectMapper.readTree(send(post("/categories"),
+                "{\"name\":\"" + type + " Export\",\"type\":\"" + type + "\"}")).get("id").asLong();
+            for (int n = 0; n < TRANSACTIONS; n++) {
+                send(post("/" + type + "s"), "{\"name\":\"Item " + n + "\",\"amount\":" + (n + 1) + ",\"categoryId\":"
+                    + categoryId + ",\"date\":\"" + LocalDate.now() + "\"}");
+            }
+        }
+    }
+
+    @Test
+    void downloadXlsx() throws Exception {
+        MvcResult result = download("/excel/download/income");
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"income_details.xlsx\""));
+        byte[] body = result.getResponse().getContentAsByteArray();
+        //an xlsx file is a zip archive
+        assertThat(body).startsWith('P', 'K');
+    }
+
+    @Test
+    void downloadCsv() throws Exception {
+        MvcResult result = download("/excel/download/expense?format=csv");
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        String csv = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(csv.lines()).hasSize(TRANSACTIONS + 1);
+        assertThat(csv.lines().skip(1)).allMatch(line -> line.startsWith("Item "));
+    }
+
+    @Test
+    void rejectsUnknownType() throws Exception {
+        mockMvc.perform(get("/excel/download/transfer").header("Authorization", authorization))
+            .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult download(String path) throws Exception {
+        return mockMvc.perform(get(path).header("Authorization", authorization))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    }
+
+    private String send(MockHttpServletRequestBuilder request, String body) throws Exception {
+        return mockMvc.perform(request.header("Authorization", authorization).contentType(MediaType.APPLICATION_JSON).content(body))
+            .andExpect(status().is2xxSuccessful())
+            .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,152 @@
+package com.prasad.moneymanager.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prasad.moneymanager.entity.ProfileEntity;
+import com.prasad.moneymanager.repository.ProfileRepository;
+import com.prasad.moneymanager.util.JwtUtil;
+
+import jakarta.persistence.EntityManagerFactory;
+
+//Exact number of statements Hibernate prepares for the read endpoints, once the per-request lookups
+//(profile, token version, data version, name index) are warm. A count going up means a new query or an N+1
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementCountTest {
+
+    private static final int TRANSACTIONS = 12;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String authorization;
+
+    @BeforeAll
+    void seed() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ProfileEntity profile = profileRepository.save(ProfileEntity.builder()
+            .fullName("Count").email("count@moneymanager.test").password("unused").isActive(true).build());
+        authorization = "Bearer " + jwtUtil.generateToken(profile);
+        for (String type : List.of("income", "expense")) {
+            List<Long> categoryIds = new ArrayList<>();
+            for (String name : List.of("First", "Second")) {
+                JsonNode category = send(post("/categories"), "{\"name\":\"" + type + " " + name + "\",\"type\":\"" + type + "\"}");
+                categoryIds.add(category.get("id").asLong());
+            }
+            for (int n = 0; n < TRANSACTIONS; n++) {
+                send(post("/" + type + "s"), "{\"name\":\"Item " + n + "\",\"amount\":" + (n + 1) + ",\"categoryId\":"
+                    + categoryIds.get(n % 2) + ",\"date\":\"" + LocalDate.now().withDayOfMonth(1 + n % 4) + "\"}");
+            }
+        }
+        //the first request of a profile loads what later ones find in memory or in the second-level cache
+        for (String path : List.of("/incomes", "/expenses", "/dashboard")) {
+            perform(get(path));
+        }
+        perform(filter("income", "item", null));
+        perform(filter("expense", "item", null));
+    }
+
+    @Test
+    void getIncomes() throws Exception {
+        assertThat(counted(get("/incomes")).size()).isEqualTo(TRANSACTIONS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getExpenses() throws Exception {
+        assertThat(counted(get("/expenses")).size()).isEqualTo(TRANSACTIONS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    //latest 5 incomes, latest 5 expenses and both totals
+    @Test
+    void getDashboard() throws Exception {
+        JsonNode dashboard = counted(get("/dashboard"));
+        assertThat(dashboard.get("recentTransactions").size()).isEqualTo(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filterPages() throws Exception {
+        for (String type : List.of("income", "expense")) {
+            for (String keyword : List.of("", "item")) {
+                String cursor = null;
+                int rows = 0;
+                do {
+                    statistics.clear();
+                    MockHttpServletResponse page = perform(filter(type, keyword, cursor));
+                    assertThat(statistics.getPrepareStatementCount()).as(type + " page " + keyword).isEqualTo(1);
+                    rows += objectMapper.readTree(page.getContentAsString()).size();
+                    cursor = page.getHeader(FilterController.NEXT_CURSOR_HEADER);
+                }
+                while (cursor != null);
+                assertThat(rows).isEqualTo(TRANSACTIONS);
+            }
+        }
+    }
+
+    private MockHttpServletRequestBuilder filter(String type, String keyword, String cursor) throws Exception {
+        LocalDate today = LocalDate.now();
+        String body = objectMapper.writeValueAsString(Map.of("type", type, "keyword", keyword, "pageSize", PAGE_SIZE,
+            "startDate", today.withDayOfMonth(1).toString(), "endDate", today.withDayOfMonth(today.lengthOfMonth()).toString(),
+            "cursor", cursor != null ? cursor : ""));
+        return post("/filter").contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    //performs the request with the statistics reset first, and returns its body
+    private JsonNode counted(MockHttpServletRequestBuilder request) throws Exception {
+        statistics.clear();
+        MockHttpServletResponse response = perform(request);
+        return objectMapper.readTree(response.getContentAsString());
+    }
+
+    private JsonNode send(MockHttpServletRequestBuilder request, String body) throws Exception {
+        return objectMapper.readTree(perform(request.contentType(MediaType.APPLICATION_JSON).content(body)).getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request.header("Authorization", authorization))
+            .andExpect(status().is2xxSuccessful())
+            .andReturn().getResponse();
+    }
+}
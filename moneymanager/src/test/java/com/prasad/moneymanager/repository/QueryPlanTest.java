@@ -0,0 +1,249 @@
+package com.prasad.moneymanager.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.prasad.moneymanager.service.RollupService;
+import com.prasad.moneymanager.support.CapturedStatements;
+
+//EXPLAINs the SQL every repository query sends and fails on a full table scan. The tables are seeded
+//with enough rows over enough profiles and dates, then ANALYZEd, so the planner has a real choice to make
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final long PROFILES = 40;
+    private static final long FIRST_PROFILE = 1001;
+    private static final long PROFILE = FIRST_PROFILE;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2025, 1, 1);
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+
+    private static final String PROFILE_TYPE_DATE = "idx_transactions_profile_type_date_id";
+    private static final String PROFILE_DATE = "idx_transactions_profile_date";
+    private static final String DATE_TYPE_PROFILE = "idx_transactions_date_type_profile";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private LedgerRepository ledgerRepository;
+
+    @Autowired
+    private ProfileBalanceRepository balanceRepository;
+
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @BeforeAll
+    void seed() {
+        //H2 backs every foreign key with an index of its own, PostgreSQL does not; without the keys
+        //the planner picks from the same indexes as in production
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList(
+            "SELECT table_name, constraint_name FROM information_schema.table_constraints WHERE constraint_type = 'FOREIGN KEY'");
+        for (Map<String, Object> key : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + key.get("table_name") + " DROP CONSTRAINT " + key.get("constraint_name"));
+        }
+        List<Object[]> profiles = new ArrayList<>();
+        List<Object[]> categories = new ArrayList<>();
+        List<Object[]> transactions = new ArrayList<>();
+        long transactionId = 1_000_000;
+        for (long p = FIRST_PROFILE; p < FIRST_PROFILE + PROFILES; p++) {
+            profiles.add(new Object[] { p, "Plan " + p, "plan-" + p + "@moneymanager.test", "token-" + p });
+            for (int c = 0; c < 6; c++) {
+                long categoryId = p * 10 + c;
+                String type = c < 3 ? "income" : "expense";
+                categories.add(new Object[] { categoryId, "Category " + c, type, p });
+                for (int n = 0; n < 50; n++) {
+                    LocalDate date = FIRST_DATE.plusDays((n * 7L + c * 3L + p) % 365);
+                    transactions.add(new Object[] { type, transactionId++, "Item " + n, Date.valueOf(date),
+                        BigDecimal.valueOf(n + c), Timestamp.valueOf(date.atStartOfDay()), categoryId, p });
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tbl_profiles (id, full_name, email, activation_token, is_active) VALUES (?, ?, ?, ?, true)", profiles);
+        jdbcTemplate.batchUpdate("INSERT INTO tbl_categories (id, name, type, profile_id) VALUES (?, ?, ?, ?)", categories);
+        jdbcTemplate.batchUpdate("INSERT INTO tbl_transactions (type, id, name, date, amount, created_at, category_id, profile_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", transactions);
+        for (long p = FIRST_PROFILE; p < FIRST_PROFILE + PROFILES; p++) {
+            long profileId = p;
+            //also creates the balance rows
+            transactionTemplate.execute(status -> rollupService.rebuild(profileId));
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void incomeQueries() {
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findTop5ByProfileIdOrderByDateDesc(PROFILE));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(
+            PROFILE, START, END, "item", ScrollPosition.keyset(), dateThenId(), Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(
+            PROFILE, START, END, "item", ScrollPosition.forward(Map.of("date", START, "id", 1_000_000L)), dateThenId(), Limit.of(100)));
+        //H2 cannot probe the id column of the (type, id) primary key with an IN list and reads the whole
+        //type instead, where PostgreSQL probes the key; so only the absence of a table scan is checked here
+        assertNoTableScan(() -> incomeRepository.findByProfileIdAndDateBetweenAndIdIn(
+            PROFILE, START, END, Set.of(1_000_001L, 1_000_002L), ScrollPosition.keyset(), dateThenId(), Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findNamesByProfileId(PROFILE));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findByProfileIdAndDateBetween(PROFILE, START, END));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findExportRows(PROFILE, START, Long.MIN_VALUE, END, Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findExportRows(PROFILE, START, 1_000_000L, END, Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> incomeRepository.findCategoryBreakdown(PROFILE, START, END));
+    }
+
+    @Test
+    void expenseQueries() {
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findTop5ByProfileIdOrderByDateDesc(PROFILE));
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findByProfileIdAndDateBetweenAndNameContainingIgnoreCase(
+            PROFILE, START, END, "item", ScrollPosition.keyset(), dateThenId(), Limit.of(100)));
+        //H2 cannot probe the id column of the (type, id) primary key with an IN list and reads the whole
+        //type instead, where PostgreSQL probes the key; so only the absence of a table scan is checked here
+        assertNoTableScan(() -> expenseRepository.findByProfileIdAndDateBetweenAndIdIn(
+            PROFILE, START, END, Set.of(1_000_001L, 1_000_002L), ScrollPosition.keyset(), dateThenId(), Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findNamesByProfileId(PROFILE));
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findByProfileIdAndDateBetween(PROFILE, START, END));
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findExportRows(PROFILE, START, Long.MIN_VALUE, END, Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findExportRows(PROFILE, START, 1_000_000L, END, Limit.of(100)));
+        assertIndexed(PROFILE_TYPE_DATE, () -> expenseRepository.findCategoryBreakdown(PROFILE, START, END));
+        assertIndexed(DATE_TYPE_PROFILE, () -> expenseRepository.findDailyExpenseRows(START, Long.MIN_VALUE, Long.MIN_VALUE, Limit.of(500)));
+        assertIndexed(DATE_TYPE_PROFILE, () -> expenseRepository.findDailyExpenseRows(START, PROFILE, 1_000_000L, Limit.of(500)));
+    }
+
+    @Test
+    void ledgerQueries() {
+        assertIndexed("primary_key", () -> ledgerRepository.findDeltasForUpdate("income", Set.of(1_000_001L, 1_000_002L), PROFILE));
+        assertIndexed("primary_key", () -> ledgerRepository.deleteByTypeAndIdIn("income", Set.of(1_000_001L, 1_000_002L), PROFILE));
+        assertIndexed(PROFILE_DATE, () -> ledgerRepository.findTotalsByProfileId(PROFILE));
+    }
+
+    @Test
+    void balanceQueries() {
+        assertIndexed(PROFILE_TYPE_DATE, () -> balanceRepository.findDashboardSnapshot(PROFILE));
+        assertIndexed("primary_key", () -> balanceRepository.findByProfileId(PROFILE));
+        assertIndexed("primary_key", () -> balanceRepository.addIncome(PROFILE, BigDecimal.ONE, 1));
+        assertIndexed("primary_key", () -> balanceRepository.addExpense(PROFILE, BigDecimal.ONE, 1));
+        //only called for a profile without a balance row (see BalanceService.lockBalance)
+        assertNoTableScan(() -> balanceRepository.insertMissing(FIRST_PROFILE + PROFILES));
+        assertIndexed("primary_key", () -> balanceRepository.findDataVersion(PROFILE));
+        assertIndexed("primary_key", () -> balanceRepository.bumpDataVersion(PROFILE));
+    }
+
+    @Test
+    void profileQueries() {
+        assertIndexed("uk_profiles_email", () -> profileRepository.findByEmail("plan-" + PROFILE + "@moneymanager.test"));
+        assertIndexed("idx_profiles_activation_token", () -> profileRepository.findByActivationToken("token-" + PROFILE));
+        assertIndexed("primary_key", () -> profileRepository.findAllIds());
+        assertIndexed("primary_key", () -> profileRepository.findTokenVersionById(PROFILE));
+        assertIndexed("primary_key", () -> profileRepository.incrementTokenVersion(PROFILE));
+    }
+
+    @Test
+    void categoryQueries() {
+        assertIndexed("idx_categories_profile", () -> categoryRepository.findByProfileId(PROFILE + 1));
+        assertIndexed("primary_key", () -> categoryRepository.findByIdAndProfileId((PROFILE + 1) * 10, PROFILE + 1));
+        assertIndexed("primary_key", () -> categoryRepository.findByIdInAndProfileId(List.of(PROFILE * 10, PROFILE * 10 + 1), PROFILE));
+        assertIndexed("idx_categories_profile_type", () -> categoryRepository.findByTypeAndProfileId("income", PROFILE + 1));
+        assertIndexed("idx_categories_profile_name", () -> categoryRepository.existsByNameAndProfileId("Category 1", PROFILE));
+    }
+
+    @Test
+    void rollupQueries() {
+        assertIndexed("primary_key", () -> rollupRepository.add(PROFILE, "income", "day", 20250301, PROFILE * 10, BigDecimal.ONE, 1));
+        assertNoTableScan(() -> rollupRepository.insertMissing(PROFILE, "income", "day", 20250301, PROFILE * 10));
+        assertIndexed("primary_key", () -> rollupRepository.deleteForProfile(PROFILE));
+        assertIndexed(PROFILE_DATE, () -> {
+            rollupRepository.deleteForProfile(PROFILE);
+            rollupRepository.rebuildMonths(PROFILE);
+        });
+        assertIndexed(PROFILE_DATE, () -> {
+            rollupRepository.deleteForProfile(PROFILE);
+            rollupRepository.rebuildDays(PROFILE);
+        });
+        assertIndexed("primary_key", () -> rollupRepository.findTrend(PROFILE, "expense", "month", 202501, 202512));
+        assertIndexed("primary_key", () -> rollupRepository.findTrendByCategory(PROFILE, "expense", "day", 20250101, 20251231));
+    }
+
+    private static Sort dateThenId() {
+        return Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    private void assertIndexed(String index, Runnable call) {
+        assertThat(String.join("\n", assertNoTableScan(call))).as("plan").containsIgnoringCase(index);
+    }
+
+    //runs the call in a transaction that is rolled back, then EXPLAINs each statement it sent
+    private List<String> assertNoTableScan(Runnable call) {
+        List<String> statements = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return CapturedStatements.capture(call);
+        });
+        assertThat(statements).as("statements sent").isNotEmpty();
+        List<String> plans = statements.stream().map(this::explain).toList();
+        for (String plan : plans) {
+            assertThat(plan).as("plan").doesNotContainIgnoringCase("tableScan");
+        }
+        return plans;
+    }
+
+    //H2 plans a statement without looking at its parameter values, so they are all bound as null
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+}
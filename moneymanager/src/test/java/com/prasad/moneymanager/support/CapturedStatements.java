@@ -0,0 +1,34 @@
+package com.prasad.moneymanager.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+//Records the SQL Hibernate prepares on the current thread while capture(...) runs; set as the
+//session factory's statement inspector in application-test.properties
+public class CapturedStatements implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            action.run();
+        }
+        finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+}
@@ -18,9 +18,10 @@ const Filter = () => {
     const [sortOrder, setSortOrder] = useState("asc");
     const [transactions, setTransactions] = useState([]);
     const [loading, setLoading] = useState(false);
+    // the filter is paged; the server sends the cursor of the next page in X-Next-Cursor
+    const [nextCursor, setNextCursor] = useState(null);
 
-    const handleSearch = async (e) => {
-        e.preventDefault();
+    const fetchPage = async (cursor) => {
         setLoading(true);
         try{
             const response = await axiosConfig.post(API_ENDPOINTS.APPLY_FILTERS, {
@@ -29,10 +30,12 @@ const Filter = () => {
                 endDate,
                 keyword,
                 sortField,
-                sortOrder
+                sortOrder,
+                cursor
             });
             console.log('transactions',response.data);
-            setTransactions(response.data);
+            setTransactions(previous => cursor ? [...previous, ...response.data] : response.data);
+            setNextCursor(response.headers["x-next-cursor"] || null);
         }
         catch(error){
             console.error("Failed to fetch transactions", error);
@@ -43,6 +46,17 @@ const Filter = () => {
         }
     }
 
+    const handleSearch = (e) => {
+        e.preventDefault();
+        setTransactions([]);
+        setNextCursor(null);
+        fetchPage(null);
+    }
+
+    const handleLoadMore = () => {
+        fetchPage(nextCursor);
+    }
+
     return (
         <Dashboard activeMenu="Filters">
             <div className="my-5 mx-auto">
@@ -116,6 +130,11 @@ const Filter = () => {
                         hideDeleteBtn
                         />
                     ))}
+                    {nextCursor && !loading ? (
+                        <button onClick={handleLoadMore} className="mt-4 px-4 py-2 bg-purple-800 hover:bg-purple-800 text-white rounded cursor-pointer">
+                            Load more
+                        </button>
+                    ) : ""}
                 </div>
             </div>
         </Dashboard>